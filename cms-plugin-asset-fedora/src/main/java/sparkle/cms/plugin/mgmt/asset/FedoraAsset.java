@@ -1,17 +1,31 @@
 package sparkle.cms.plugin.mgmt.asset;
 
+import org.fcrepo.client.FedoraDatastream;
+import org.fcrepo.client.FedoraException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * FedoraAsset
  * Created by bazzoni on 08/05/2015.
  */
 public class FedoraAsset implements Asset {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String uri;
+    private final FedoraDatastream datastream;
 
     public FedoraAsset(String uri) {
-        this.uri = uri;
+        this(uri, null);
     }
 
+    public FedoraAsset(String uri, FedoraDatastream datastream) {
+        this.uri = uri;
+        this.datastream = datastream;
+    }
 
     /**
      * Get Asset URI
@@ -24,12 +38,44 @@ public class FedoraAsset implements Asset {
     }
 
     /**
-     * Get content as byte array
+     * Get content as byte array, datastream is downloaded on each call
      *
      * @return byte array
      */
     @Override
     public byte[] getContent() {
-        return null;
+        if (datastream == null) {
+            return null;
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream inputStream = getContentStream()) {
+            byte[] b = new byte[8192];
+            int read;
+            while ((read = inputStream.read(b)) != -1) {
+                baos.write(b, 0, read);
+            }
+        } catch (IOException e) {
+            logger.debug("Getting data:", e);
+            return null;
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Opens a stream on datastream content
+     *
+     * @return content stream
+     * @throws IOException if content cannot be read
+     */
+    @Override
+    public InputStream getContentStream() throws IOException {
+        if (datastream == null) {
+            throw new IOException(String.format("No datastream bound to asset: %s", uri));
+        }
+        try {
+            return datastream.getContent();
+        } catch (FedoraException e) {
+            throw new IOException(e);
+        }
     }
 }
@@ -10,9 +10,10 @@ import sparkle.cms.domain.SettingType;
 import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 
-import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 
@@ -22,7 +23,7 @@ import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
  */
 @Component
 public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<FedoraContainer, FedoraAsset> {
-    private FedoraRepository repository;
+    private FedoraRepositoryImpl repository;
 
     @Value("classpath:/META-INF/fedora-plugin.properties")
     private Resource resource;
@@ -110,25 +111,20 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
      * @param siteId      site id
      * @param path        internal path
      * @param name        asset name
-     * @param data        asset data
+     * @param data        asset data stream
      * @param contentType content type
      * @return asset path
      * @throws PluginOperationException if operation failure
      */
     @Override
-    public String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException {
+    public String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException {
         try {
-            FedoraContent content = new FedoraContent().setContent(new ByteArrayInputStream(data))
+            FedoraContent content = new FedoraContent().setContent(data)
                     .setContentType(contentType);
             repository.findOrCreateObject(siteId);
             repository.findOrCreateObject(siteId + "/" + path);
 
-            String dataStreamName;
-            if (path.endsWith("/") || path.isEmpty()) {
-                dataStreamName = String.format("%s/%s%s", siteId, path, name);
-            } else {
-                dataStreamName = String.format("%s/%s/%s", siteId, path, name);
-            }
+            final String dataStreamName = getDataStreamName(siteId, path, name);
             FedoraDatastream datastream = repository.createDatastream(dataStreamName, content);
             return datastream.getName();
         } catch (FedoraException e) {
@@ -147,18 +143,76 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
     @Override
     public void deleteAsset(String siteId, String path, String name) throws PluginOperationException {
         try {
-            String dataStreamName;
-            if (path.endsWith("/") || path.isEmpty()) {
-                dataStreamName = String.format("%s/%s%s", siteId, path, name);
-            } else {
-                dataStreamName = String.format("%s/%s/%s", siteId, path, name);
-            }
+            final String dataStreamName = getDataStreamName(siteId, path, name);
             repository.findOrCreateDatastream(dataStreamName).delete();
         } catch (FedoraException e) {
             throw new PluginOperationException("Fedora Repository related error.", e);
         }
     }
 
+    /**
+     * Applies a batch of mutations within a single Fedora transaction, rolled back if any of them fails
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        final FedoraRepositoryImpl transaction;
+        try {
+            transaction = repository.startTransaction();
+        } catch (FedoraException e) {
+            throw new PluginOperationException("Fedora Repository related error.", e);
+        }
+        try {
+            for (AssetOperation operation : operations) {
+                final String siteId = operation.getSiteId();
+                final String path = operation.getPath();
+                switch (operation.getType()) {
+                    case CREATE_FOLDER:
+                        transaction.findOrCreateObject(siteId);
+                        transaction.createObject(siteId + "/" + path);
+                        break;
+                    case DELETE_FOLDER:
+                        transaction.findOrCreateObject(siteId + "/" + path).delete();
+                        break;
+                    case CREATE_ASSET:
+                        transaction.findOrCreateObject(siteId);
+                        transaction.findOrCreateObject(siteId + "/" + path);
+                        transaction.createDatastream(getDataStreamName(siteId, path, operation.getName()),
+                                new FedoraContent().setContent(operation.getData()).setContentType(operation.getContentType()));
+                        break;
+                    case DELETE_ASSET:
+                        transaction.findOrCreateDatastream(getDataStreamName(siteId, path, operation.getName())).delete();
+                        break;
+                }
+            }
+            transaction.commitTransaction();
+        } catch (FedoraException e) {
+            try {
+                transaction.rollbackTransaction();
+            } catch (FedoraException re) {
+                e.addSuppressed(re);
+            }
+            throw new PluginOperationException("Fedora Repository related error.", e);
+        }
+    }
+
+    /**
+     * Get datastream name of an asset
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return datastream name
+     */
+    private String getDataStreamName(String siteId, String path, String name) {
+        if (path.endsWith("/") || path.isEmpty()) {
+            return String.format("%s/%s%s", siteId, path, name);
+        }
+        return String.format("%s/%s/%s", siteId, path, name);
+    }
+
     /**
      * Find a site Repository
      *
@@ -204,14 +258,28 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
     @Override
     public FedoraAsset findAsset(String siteId, String path, String name) throws PluginOperationException {
         try {
-            String dataStreamName;
-            if (path.endsWith("/") || path.isEmpty()) {
-                dataStreamName = String.format("%s/%s%s", siteId, path, name);
-            } else {
-                dataStreamName = String.format("%s/%s/%s", siteId, path, name);
-            }
+            final String dataStreamName = getDataStreamName(siteId, path, name);
             final FedoraDatastreamImpl fedoraDatastream = (FedoraDatastreamImpl) repository.findOrCreateDatastream(dataStreamName);
-            return new FedoraAsset(fedoraDatastream.getUri());
+            return new FedoraAsset(fedoraDatastream.getUri(), fedoraDatastream);
+        } catch (FedoraException e) {
+            throw new PluginOperationException("Fedora Repository related error.", e);
+        }
+    }
+
+    /**
+     * Opens a stream on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public InputStream findAssetContent(String siteId, String path, String name) throws PluginOperationException {
+        try {
+            final String dataStreamName = getDataStreamName(siteId, path, name);
+            return repository.getDatastream(dataStreamName).getContent();
         } catch (FedoraException e) {
             throw new PluginOperationException("Fedora Repository related error.", e);
         }
@@ -228,6 +296,7 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
         settings.add(new CmsSetting(getCompoundKey("repositoryURL"), getSetting("repositoryURL", String.class, "<change me>"), SettingType.INET));
         settings.add(new CmsSetting(getCompoundKey("username"), getSetting("username", String.class, "<change me>"), SettingType.TEXT));
         settings.add(new CmsSetting(getCompoundKey("password"), getSetting("password", String.class, "<change me>"), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("catalog.batch.size"), getCatalogBatchSize(), SettingType.INTEGER));
     }
 
     /**
@@ -256,7 +325,7 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
     }
 
     @Override
-    protected void loadChildren(String siteId, FedoraContainer siteRepository) throws PluginOperationException {
+    protected void loadChildren(String siteId, FedoraContainer siteRepository, CmsAssetSink sink) throws PluginOperationException {
         try {
             final FedoraObject fedoraObject = repository.findOrCreateObject(siteId);
             final Collection<FedoraResource> children = fedoraObject.getChildren(null);
@@ -264,8 +333,7 @@ public class FedoraAssetManagementPlugin extends AbstractAssetManagementPlugin<F
                 for (FedoraResource fedoraResource : children) {
                     CmsAsset cmsAsset = new CmsAsset(siteId, fedoraResource.getName(), new Date(), fedoraResource.getName(), String.format("%s/%s", siteId, fedoraResource.getName()));
                     cmsAsset.setType(findAssetTypeByFileName(fedoraResource.getName()));
-
-                    cmsAssetRepository.save(cmsAsset);
+                    sink.accept(cmsAsset);
                 }
             }
         } catch (FedoraException e) {
@@ -160,13 +160,17 @@ public class FedoraDatastreamImpl extends FedoraResourceImpl implements FedoraDa
     public InputStream getContent() throws FedoraException {
         final HttpGet get = httpHelper.createGetMethod(path, null);
         final String uri = get.getURI().toString();
+        boolean streaming = false;
 
         try {
             final HttpResponse response = httpHelper.execute(get);
             final StatusLine status = response.getStatusLine();
 
             if (status.getStatusCode() == SC_OK) {
-                return response.getEntity().getContent();
+                // connection is released when caller closes content stream
+                final InputStream content = response.getEntity().getContent();
+                streaming = true;
+                return content;
             } else if (status.getStatusCode() == SC_FORBIDDEN) {
                 logger.error("request for resource {} is not authorized.", uri);
                 throw new ForbiddenException("request for resource " + uri + " is not authorized.");
@@ -179,11 +183,15 @@ public class FedoraDatastreamImpl extends FedoraResourceImpl implements FedoraDa
                 throw new FedoraException("error retrieving resource " + uri + ": " + status.getStatusCode() + " " +
                         status.getReasonPhrase());
             }
+        } catch (final FedoraException e) {
+            throw e;
         } catch (final Exception e) {
             logger.error("could not encode URI parameter", e);
             throw new FedoraException(e);
         } finally {
-            get.releaseConnection();
+            if (!streaming) {
+                get.releaseConnection();
+            }
         }
     }
 
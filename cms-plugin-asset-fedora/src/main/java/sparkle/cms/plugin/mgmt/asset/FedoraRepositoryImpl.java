@@ -4,12 +4,15 @@ import com.hp.hpl.jena.graph.Triple;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
+import org.apache.http.Header;
 import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.fcrepo.client.*;
 import org.slf4j.Logger;
 import sparkle.cms.plugin.mgmt.asset.utils.HttpHelper;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Map;
@@ -180,6 +183,87 @@ public class FedoraRepositoryImpl implements FedoraRepository {
         }
     }
 
+    /**
+     * Starts a transaction, changes made through the returned repository are isolated until committed
+     *
+     * @return repository bound to the transaction
+     * @throws FedoraException if transaction cannot be started
+     */
+    public FedoraRepositoryImpl startTransaction() throws FedoraException {
+        final HttpPost post = httpHelper.createPostMethod("fcr:tx", null);
+        try {
+            final HttpResponse response = httpHelper.execute(post);
+            final String uri = post.getURI().toString();
+            final StatusLine status = response.getStatusLine();
+            final int statusCode = status.getStatusCode();
+            final Header location = response.getFirstHeader("Location");
+
+            if (statusCode == SC_CREATED && location != null) {
+                String transactionURL = location.getValue();
+                if (!transactionURL.endsWith("/")) {
+                    transactionURL = String.format("%s/", transactionURL);
+                }
+                return new FedoraRepositoryImpl(transactionURL, httpHelper.getHttpClient());
+            } else if (statusCode == SC_FORBIDDEN) {
+                logger.error("request to start transaction {} is not authorized.", uri);
+                throw new ForbiddenException("request to start transaction " + uri + " is not authorized.");
+            } else {
+                logger.error("error starting transaction {}: {} {}", uri, statusCode, status.getReasonPhrase());
+                throw new FedoraException("error starting transaction " + uri + ": " + statusCode + " " +
+                        status.getReasonPhrase());
+            }
+        } catch (IOException e) {
+            logger.error("Error executing request", e);
+            throw new FedoraException(e);
+        } finally {
+            post.releaseConnection();
+        }
+    }
+
+    /**
+     * Commits the transaction this repository is bound to
+     *
+     * @throws FedoraException if transaction cannot be committed
+     */
+    public void commitTransaction() throws FedoraException {
+        endTransaction("fcr:tx/fcr:commit");
+    }
+
+    /**
+     * Rolls back the transaction this repository is bound to
+     *
+     * @throws FedoraException if transaction cannot be rolled back
+     */
+    public void rollbackTransaction() throws FedoraException {
+        endTransaction("fcr:tx/fcr:rollback");
+    }
+
+    private void endTransaction(final String path) throws FedoraException {
+        final HttpPost post = httpHelper.createPostMethod(path, null);
+        try {
+            final HttpResponse response = httpHelper.execute(post);
+            final String uri = post.getURI().toString();
+            final StatusLine status = response.getStatusLine();
+            final int statusCode = status.getStatusCode();
+
+            if (statusCode == SC_NO_CONTENT || statusCode == SC_OK) {
+                logger.debug("transaction {} ended", uri);
+            } else if (statusCode == SC_GONE || statusCode == SC_NOT_FOUND) {
+                logger.error("transaction {} expired", uri);
+                throw new NotFoundException("transaction " + uri + " expired");
+            } else {
+                logger.error("error ending transaction {}: {} {}", uri, statusCode, status.getReasonPhrase());
+                throw new FedoraException("error ending transaction " + uri + ": " + statusCode + " " +
+                        status.getReasonPhrase());
+            }
+        } catch (IOException e) {
+            logger.error("Error executing request", e);
+            throw new FedoraException(e);
+        } finally {
+            post.releaseConnection();
+        }
+    }
+
     @Override
     public Iterator<Triple> getNodeTypes() {
         // TODO Auto-generated method stub
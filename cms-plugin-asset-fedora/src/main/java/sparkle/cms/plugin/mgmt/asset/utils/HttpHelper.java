@@ -100,6 +100,15 @@ public class HttpHelper {
         this.httpClient = httpClientBuilder.build();
     }
 
+    /**
+     * Get the HttpClient used to execute requests
+     *
+     * @return HttpClient instance
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
     /**
      * Encode URL parameters as a query string.
      *
@@ -3,43 +3,77 @@ package sparkle.cms.plugin.mgmt.asset;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.UUID;
 
 /**
  * FileAsset
  * Created by bazzoni on 07/05/2015.
  */
 public class FileAsset implements Asset {
+    public static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final Path path;
     private ByteBuffer data;
 
     public FileAsset(Path path) {
-        this(path, null);
+        this.path = path;
+    }
+
+    public FileAsset(Path path, byte[] data) throws IOException {
+        this(path, new ByteArrayInputStream(data), false);
     }
 
-    public FileAsset(Path path, byte[] data) {
+    /**
+     * Creates asset file writing data to a temporary sibling file that is atomically
+     * moved over the target, so readers never observe a missing or partial asset
+     *
+     * @param path target path
+     * @param data data stream, consumed but not closed
+     * @param sync true forces data to storage before the move
+     * @throws IOException if asset cannot be written
+     */
+    public FileAsset(Path path, InputStream data, boolean sync) throws IOException {
         this.path = path;
+        saveData(data, sync);
+    }
+
+    /**
+     * Returns Asset content bytes, file is read on first access
+     *
+     * @return content bytes
+     */
+    @Override
+    public byte[] getContent() {
         if (data == null) {
             loadData();
-        } else {
-            saveData(data);
         }
+        return data != null ? data.array() : null;
     }
 
     /**
-     * Returns Asset content bytes
+     * Opens a stream on asset file
      *
-     * @return content bytes
+     * @return content stream
+     * @throws IOException if file cannot be opened
      */
     @Override
-    public byte[] getContent() {
-        return data.array();
+    public InputStream getContentStream() throws IOException {
+        return Files.newInputStream(path, StandardOpenOption.READ);
     }
 
     /**
@@ -52,26 +86,145 @@ public class FileAsset implements Asset {
         return path.toString();
     }
 
-    private void saveData(byte[] data) {
+    /**
+     * Opens a read only channel on asset file
+     *
+     * @return file channel, caller must close it
+     * @throws IOException if file cannot be opened
+     */
+    public FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Maps asset file in memory without copying it on heap
+     *
+     * @return read only mapped buffer
+     * @throws IOException if file cannot be mapped
+     */
+    public MappedByteBuffer map() throws IOException {
+        try (FileChannel channel = openChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Transfers whole asset file to target channel using kernel zero-copy path when available
+     *
+     * @param target target channel, not closed
+     * @return number of transferred bytes
+     * @throws IOException if transfer fails
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        return transferTo(0, Long.MAX_VALUE, target);
+    }
+
+    /**
+     * Transfers a region of asset file to target channel using kernel zero-copy path when available
+     *
+     * @param position file position to start from
+     * @param count    maximum number of bytes to transfer
+     * @param target   target channel, not closed
+     * @return number of transferred bytes, less than requested if file shrinks or a non blocking target is full
+     * @throws IOException if transfer fails
+     */
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = openChannel()) {
+            final long length = Math.min(count, Math.max(channel.size() - position, 0));
+            long transferred = 0;
+            while (transferred < length) {
+                final long chunk = channel.transferTo(position + transferred, length - transferred, target);
+                if (chunk <= 0) {
+                    break;
+                }
+                transferred += chunk;
+            }
+            return transferred;
+        }
+    }
+
+    private void saveData(InputStream data, boolean sync) throws IOException {
+        final Path temp = stageData(data, sync);
         try {
-            Files.deleteIfExists(path);
-            Files.createFile(path);
-            ByteBuffer bb = ByteBuffer.wrap(data);
-            try (SeekableByteChannel sbc =
-                         Files.newByteChannel(path, StandardOpenOption.WRITE)) {
-                sbc.write(bb);
-            } catch (IOException e) {
-                logger.debug("Cannot load resource", e);
+            commitData(temp, sync);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes data to a temporary sibling file that is not yet visible as the asset
+     *
+     * @param data data stream, consumed but not closed
+     * @param sync true forces data to storage
+     * @return temporary file
+     * @throws IOException if data cannot be written, temporary file is removed
+     */
+    Path stageData(InputStream data, boolean sync) throws IOException {
+        return stageData(data, sync, path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Writes data to a temporary file in the given folder that is not yet visible as the asset.
+     * Folder should be on the same file store as the asset for the final move to be atomic.
+     *
+     * @param data   data stream, consumed but not closed
+     * @param sync   true forces data to storage
+     * @param folder existing folder holding the temporary file
+     * @return temporary file
+     * @throws IOException if data cannot be written, temporary file is removed
+     */
+    Path stageData(InputStream data, boolean sync, Path folder) throws IOException {
+        final Path temp = folder.resolve(String.format(".%s.%s%s", path.getFileName(), UUID.randomUUID(), TEMP_SUFFIX));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            final OutputStream outputStream = Channels.newOutputStream(channel);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            if (sync) {
+                channel.force(true);
             }
         } catch (IOException e) {
-            logger.debug("Cannot load resource", e);
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    /**
+     * Atomically moves a staged temporary file over the asset
+     *
+     * @param temp temporary file returned by {@link #stageData(InputStream, boolean)}
+     * @param sync true forces folder entry to storage
+     * @throws IOException if file cannot be moved
+     */
+    void commitData(Path temp, boolean sync) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.debug("Atomic move not supported, replacing: " + path.toString(), e);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (sync) {
+            syncFolder(path.toAbsolutePath().getParent());
+        }
+    }
+
+    private void syncFolder(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms cannot open or sync a directory
+            logger.debug("Cannot sync folder: " + folder.toString(), e);
         }
     }
 
     private void loadData() {
-        try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
-            data = ByteBuffer.allocate((int) sbc.size());
-            sbc.read(data);
+        try {
+            data = ByteBuffer.wrap(Files.readAllBytes(path));
         } catch (IOException e) {
             logger.debug("Cannot load resource", e);
         }
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -27,7 +28,12 @@ public class FileContainer implements Container {
      */
     @Override
     public boolean hasChildren() {
-        return path.toFile().list().length > 0;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+            return children.iterator().hasNext();
+        } catch (IOException e) {
+            logger.debug("Listing folder: " + path.toString(), e);
+            return false;
+        }
     }
 
     private void loadData() {
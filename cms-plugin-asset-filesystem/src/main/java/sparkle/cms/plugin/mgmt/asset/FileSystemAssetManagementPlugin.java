@@ -11,9 +11,14 @@ import sparkle.cms.plugin.mgmt.PluginStatus;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 
@@ -24,6 +29,7 @@ import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 @Component
 public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlugin<FileContainer, FileAsset> {
     private Path baseFolder;
+    private boolean syncWrites;
 
     @Value("classpath:/META-INF/filesystem-plugin.properties")
     private Resource resource;
@@ -126,18 +132,22 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
      * @param siteId      site id
      * @param path        internal path
      * @param name        asset name
-     * @param data        asset data
+     * @param data        asset data stream
      * @param contentType content type
      * @return asset path
      * @throws PluginOperationException if operation failure
      */
     @Override
-    public String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException {
+    public String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException {
         final Path folder = Paths.get(baseFolder.toString(), siteId, path);
         FileContainer container = new FileContainer(folder);
         final Path file = Paths.get(container.toString(), name);
-        FileAsset asset = new FileAsset(file, data);
-        return asset.toString();
+        try {
+            FileAsset asset = new FileAsset(file, data, syncWrites);
+            return asset.toString();
+        } catch (IOException e) {
+            throw new PluginOperationException(String.format("Cannot write asset:%s", file), e);
+        }
     }
 
     /**
@@ -161,6 +171,58 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
         }
     }
 
+    /**
+     * Applies a batch of mutations in two passes: asset data is first staged in temporary
+     * files under the base folder, then mutations are applied in list order, assets being
+     * moved in place. Nothing is visible if staging fails.
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        final Map<AssetOperation, Path> staged = new IdentityHashMap<>();
+        try {
+            for (AssetOperation operation : operations) {
+                if (operation.getType() == AssetOperationType.CREATE_ASSET) {
+                    final FileAsset asset = new FileAsset(Paths.get(baseFolder.toString(), operation.getSiteId(), operation.getPath(), operation.getName()));
+                    staged.put(operation, asset.stageData(operation.getData(), syncWrites, baseFolder));
+                }
+            }
+            for (AssetOperation operation : operations) {
+                switch (operation.getType()) {
+                    case CREATE_FOLDER:
+                        createFolder(operation.getSiteId(), operation.getPath());
+                        break;
+                    case DELETE_FOLDER:
+                        deleteFolder(operation.getSiteId(), operation.getPath());
+                        break;
+                    case CREATE_ASSET:
+                        final FileContainer container = new FileContainer(Paths.get(baseFolder.toString(), operation.getSiteId(), operation.getPath()));
+                        final FileAsset asset = new FileAsset(Paths.get(container.toString(), operation.getName()));
+                        asset.commitData(staged.get(operation), syncWrites);
+                        staged.remove(operation);
+                        break;
+                    case DELETE_ASSET:
+                        deleteAsset(operation.getSiteId(), operation.getPath(), operation.getName());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            throw new PluginOperationException("Cannot apply batch", e);
+        } finally {
+            for (Path temp : staged.values()) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    //ignore, catalog loading skips temporary files
+                }
+            }
+        }
+    }
+
     /**
      * Find a site Repository
      *
@@ -197,6 +259,45 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
         return new FileAsset(Paths.get(baseFolder.toString(), siteId, path, name));
     }
 
+    /**
+     * Opens a stream on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public InputStream findAssetContent(String siteId, String path, String name) throws PluginOperationException {
+        final Path file = Paths.get(baseFolder.toString(), siteId, path, name);
+        try {
+            return Files.newInputStream(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new PluginOperationException(String.format("Cannot read asset:%s", file), e);
+        }
+    }
+
+    /**
+     * Transfers asset content to target channel using file channel zero-copy transfer
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @param target target channel, not closed
+     * @return number of transferred bytes
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public long transferAsset(String siteId, String path, String name, WritableByteChannel target) throws PluginOperationException {
+        final FileAsset asset = findAsset(siteId, path, name);
+        try {
+            return asset.transferTo(target);
+        } catch (IOException e) {
+            throw new PluginOperationException(String.format("Cannot transfer asset:%s", asset.toString()), e);
+        }
+    }
+
     /**
      * Initialize plugin settings
      *
@@ -205,7 +306,9 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     protected void createSettings() throws PluginOperationException {
         settings.add(new CmsSetting(getCompoundKey("activate"), getSetting("activate", Boolean.class, false), SettingType.BOOL));
+        settings.add(new CmsSetting(getCompoundKey("catalog.batch.size"), getCatalogBatchSize(), SettingType.INTEGER));
         settings.add(new CmsSetting(getCompoundKey("base.folder.path"), getSetting("base.folder.path", String.class, properties.getProperty("plugin.base.folder.path")), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("sync.writes"), getSetting("sync.writes", Boolean.class, Boolean.parseBoolean(properties.getProperty("plugin.sync.writes"))), SettingType.BOOL));
     }
 
     /**
@@ -216,6 +319,7 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     protected void doValidate() throws PluginOperationException {
         String folderName = getSetting("base.folder.path", String.class, properties.getProperty("plugin.base.folder.path"));
+        syncWrites = getSetting("sync.writes", Boolean.class, Boolean.parseBoolean(properties.getProperty("plugin.sync.writes")));
         if (!folderName.isEmpty() && !folderName.equals("<change me>")) {
             try {
                 String folder = new File(folderName).getCanonicalPath();
@@ -230,20 +334,47 @@ public class FileSystemAssetManagementPlugin extends AbstractAssetManagementPlug
         }
     }
 
+    /**
+     * Feed all site assets to the catalog sink, walking nested folders one entry at a time.
+     * Temporary files of in-flight writes are skipped.
+     *
+     * @param siteId         site id
+     * @param siteRepository container repository
+     * @param sink           catalog sink
+     * @throws PluginOperationException if error
+     */
     @Override
-    protected void loadChildren(String siteId, FileContainer siteRepository) throws PluginOperationException {
-        final File site = Paths.get(siteRepository.toString()).toFile();
-        final File[] files = site.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                CmsAsset cmsAsset = new CmsAsset(siteId, file.getName(), new Date(), file.getName(), String.format("%s/%s", siteId, file.getName()));
-                cmsAsset.setType(findAssetTypeByFileName(file.getName()));
-
-                cmsAssetRepository.save(cmsAsset);
-            }
+    protected void loadChildren(String siteId, FileContainer siteRepository, CmsAssetSink sink) throws PluginOperationException {
+        final Path site = Paths.get(siteRepository.toString());
+        try {
+            Files.walkFileTree(site, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    final String name = file.getFileName().toString();
+                    if (attrs.isRegularFile() && !(name.startsWith(".") && name.endsWith(FileAsset.TEMP_SUFFIX))) {
+                        final String relativePath = site.relativize(file).toString().replace(File.separatorChar, '/');
+                        CmsAsset cmsAsset = new CmsAsset(siteId, name, new Date(attrs.lastModifiedTime().toMillis()), name, String.format("%s/%s", siteId, relativePath));
+                        cmsAsset.setType(findAssetTypeByFileName(name));
+                        sink.accept(cmsAsset);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new PluginOperationException(String.format("Cannot load repository:%s", site), e);
         }
     }
 
+    /**
+     * Catalog dates are file modification times
+     *
+     * @return true
+     */
+    @Override
+    protected boolean hasModificationDates() {
+        return true;
+    }
+
     /**
      * Executes specific finalization tasks
      *
@@ -16,19 +16,30 @@ import org.springframework.data.mongodb.repository.config.EnableMongoRepositorie
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import sparkle.cms.data.CmsAssetRepository;
 import sparkle.cms.data.CmsSettingRepository;
+import sparkle.cms.domain.CmsAsset;
 import sparkle.cms.domain.CmsSetting;
 import sparkle.cms.domain.SettingType;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.UnknownHostException;
+import java.nio.channels.Channels;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -48,6 +59,8 @@ public class FileSystemAssetManagementPluginTest extends AbstractMongoConfigurat
     private AssetManagementPlugin<? extends Container, ? extends Asset> plugin;
     @Autowired
     private CmsSettingRepository cmsSettingRepository;
+    @Autowired
+    private CmsAssetRepository cmsAssetRepository;
 
     public String getDatabaseName() {
         return "cms-test";
@@ -149,6 +162,89 @@ public class FileSystemAssetManagementPluginTest extends AbstractMongoConfigurat
         assertArrayEquals(created_data, baos.toByteArray());
     }
 
+    @Test
+    public void testCreateAssetFromStream() throws Exception {
+        ByteArrayOutputStream baos = readDataFromClasspath();
+        plugin.createAsset(siteId, "folder1/folder2", "stream.png", new ByteArrayInputStream(baos.toByteArray()), "image/png");
+        byte[] created_data = Files.readAllBytes(Paths.get(baseFolder, siteId, "folder1/folder2/stream.png"));
+        assertArrayEquals(created_data, baos.toByteArray());
+    }
+
+    @Test
+    public void testLoadNestedChildren() throws Exception {
+        plugin.createAsset(siteId, "folder1/folder2", "walk.txt", "data".getBytes(), "text/plain");
+        plugin.createAsset(siteId, "folder1/folder2/folder3", "fresh.txt", "data".getBytes(), "text/plain");
+        long files;
+        try (Stream<Path> walk = Files.walk(Paths.get(baseFolder, siteId))) {
+            files = walk.filter(Files::isRegularFile).count();
+        }
+        Map<String, CmsAsset> catalogued = new HashMap<>();
+        catalogued.put(String.format("%s/folder1/folder2/walk.txt", siteId), createCmsAsset("walk-id", "folder1/folder2/walk.txt"));
+        CmsAsset outdated = createCmsAsset("fresh-id", "folder1/folder2/folder3/fresh.txt");
+        outdated.setDate(new Date(0));
+        catalogued.put(outdated.getUri(), outdated);
+        catalogued.put(String.format("%s/missing.txt", siteId), createCmsAsset("missing-id", "missing.txt"));
+
+        FileSystemAssetManagementPlugin fileSystemPlugin = (FileSystemAssetManagementPlugin) plugin;
+        try (CmsAssetSink sink = new CmsAssetSink(cmsAssetRepository, 2, true, catalogued)) {
+            fileSystemPlugin.loadChildren(siteId, fileSystemPlugin.findSiteRepository(siteId), sink);
+            sink.flush();
+            assertEquals(Collections.singleton(String.format("%s/missing.txt", siteId)), sink.getStaleUris());
+            // unchanged walk.txt skipped, outdated fresh.txt saved over its entry
+            assertEquals(files - 1, sink.getSaved());
+        }
+        assertEquals(Files.getLastModifiedTime(Paths.get(baseFolder, siteId, "folder1/folder2/folder3/fresh.txt")).toMillis(),
+                cmsAssetRepository.findOne("fresh-id").getDate().getTime());
+    }
+
+    private CmsAsset createCmsAsset(String id, String path) throws IOException {
+        String name = Paths.get(path).getFileName().toString();
+        Path file = Paths.get(baseFolder, siteId, path);
+        Date date = Files.exists(file) ? new Date(Files.getLastModifiedTime(file).toMillis()) : new Date();
+        CmsAsset cmsAsset = new CmsAsset(siteId, name, date, name, String.format("%s/%s", siteId, path));
+        cmsAsset.setId(id);
+        cmsAsset.setType(AssetUtils.findAssetTypeByFileName(name));
+        return cmsAsset;
+    }
+
+    @Test
+    public void testApplyBatch() throws Exception {
+        plugin.createAsset(siteId, "batch", "old.txt", "old".getBytes(), "text/plain");
+        plugin.applyBatch(Arrays.asList(
+                AssetOperation.createFolder(siteId, "batch/nested"),
+                AssetOperation.createAsset(siteId, "batch/nested", "new.txt", "new".getBytes(), "text/plain"),
+                AssetOperation.deleteAsset(siteId, "batch", "old.txt")));
+
+        assertFalse(Files.exists(Paths.get(baseFolder, siteId, "batch/old.txt")));
+        assertArrayEquals("new".getBytes(), Files.readAllBytes(Paths.get(baseFolder, siteId, "batch/nested/new.txt")));
+    }
+
+    @Test
+    public void testApplyBatchInOrder() throws Exception {
+        plugin.createFolder(siteId, "ordered");
+        plugin.createAsset(siteId, "batch", "replaced.txt", "old".getBytes(), "text/plain");
+        plugin.applyBatch(Arrays.asList(
+                AssetOperation.deleteFolder(siteId, "ordered"),
+                AssetOperation.createFolder(siteId, "ordered"),
+                AssetOperation.deleteAsset(siteId, "batch", "replaced.txt"),
+                AssetOperation.createAsset(siteId, "batch", "replaced.txt", "new".getBytes(), "text/plain")));
+
+        assertTrue(Files.isDirectory(Paths.get(baseFolder, siteId, "ordered")));
+        assertArrayEquals("new".getBytes(), Files.readAllBytes(Paths.get(baseFolder, siteId, "batch/replaced.txt")));
+    }
+
+    @Test
+    public void testReplaceAsset() throws Exception {
+        ByteArrayOutputStream baos = readDataFromClasspath();
+        plugin.createAsset(siteId, "folder1", "replaced.txt", "old data".getBytes(), "text/plain");
+        plugin.createAsset(siteId, "folder1", "replaced.txt", baos.toByteArray(), "image/png");
+        byte[] created_data = Files.readAllBytes(Paths.get(baseFolder, siteId, "folder1/replaced.txt"));
+        assertArrayEquals(created_data, baos.toByteArray());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(baseFolder, siteId, "folder1"), "*" + FileAsset.TEMP_SUFFIX)) {
+            assertFalse(files.iterator().hasNext());
+        }
+    }
+
     @Test
     public void testDeleteAsset() throws Exception {
         ByteArrayOutputStream baos = readDataFromClasspath();
@@ -189,6 +285,56 @@ public class FileSystemAssetManagementPluginTest extends AbstractMongoConfigurat
         assertArrayEquals(asset.getContent(), baos.toByteArray());
     }
 
+    @Test
+    public void testFindAssetIsLazy() throws Exception {
+        String path = "folder1/folder2";
+        String name = "logo_java.png";
+
+        Files.createDirectories(Paths.get(baseFolder, siteId, path));
+        Files.deleteIfExists(Paths.get(baseFolder, siteId, path, name));
+        Asset asset = plugin.findAsset(siteId, path, name);
+        assertEquals(Paths.get(baseFolder, siteId, path, name).toString(), asset.getUri());
+
+        ByteArrayOutputStream baos = readDataFromClasspath();
+        Files.write(Paths.get(baseFolder, siteId, path, name), baos.toByteArray());
+        assertArrayEquals(asset.getContent(), baos.toByteArray());
+    }
+
+    @Test
+    public void testFindAssetContent() throws Exception {
+        String path = "folder1/folder2";
+        String name = "logo_java.png";
+
+        Files.createDirectories(Paths.get(baseFolder, siteId, path));
+        ByteArrayOutputStream baos = readDataFromClasspath();
+        Files.write(Paths.get(baseFolder, siteId, path, name), baos.toByteArray());
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream inputStream = plugin.findAssetContent(siteId, path, name)) {
+            byte[] b = new byte[1024];
+            int read;
+            while ((read = inputStream.read(b)) != -1) {
+                content.write(b, 0, read);
+            }
+        }
+        assertArrayEquals(content.toByteArray(), baos.toByteArray());
+    }
+
+    @Test
+    public void testTransferAsset() throws Exception {
+        String path = "folder1/folder2";
+        String name = "logo_java.png";
+
+        Files.createDirectories(Paths.get(baseFolder, siteId, path));
+        ByteArrayOutputStream baos = readDataFromClasspath();
+        Files.write(Paths.get(baseFolder, siteId, path, name), baos.toByteArray());
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        long transferred = plugin.transferAsset(siteId, path, name, Channels.newChannel(content));
+        assertEquals(baos.size(), transferred);
+        assertArrayEquals(content.toByteArray(), baos.toByteArray());
+    }
+
     private ByteArrayOutputStream readDataFromClasspath() throws IOException {
         InputStream inputStream = (getClass().getResourceAsStream("/logo_java.png"));
         Files.deleteIfExists(Paths.get(baseFolder, "logo_java.png"));
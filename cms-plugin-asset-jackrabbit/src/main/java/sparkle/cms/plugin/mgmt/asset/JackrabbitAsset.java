@@ -1,9 +1,13 @@
 package sparkle.cms.plugin.mgmt.asset;
 
+import org.apache.jackrabbit.commons.JcrUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jcr.RepositoryException;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * JackrabbitAsset
@@ -12,11 +16,11 @@ import java.io.ByteArrayOutputStream;
 public class JackrabbitAsset implements Asset {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String uri;
-    private final ByteArrayOutputStream baos;
+    private final JackrabbitSessionPool sessionPool;
 
-    public JackrabbitAsset(String uri, ByteArrayOutputStream baos) {
+    public JackrabbitAsset(String uri, JackrabbitSessionPool sessionPool) {
         this.uri = uri;
-        this.baos = baos;
+        this.sessionPool = sessionPool;
     }
 
     /**
@@ -30,12 +34,41 @@ public class JackrabbitAsset implements Asset {
     }
 
     /**
-     * Get content as byte array
+     * Get content as byte array, binary is read on each call with a pooled session
      *
      * @return byte array
      */
     @Override
     public byte[] getContent() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            sessionPool.execute(session -> {
+                try {
+                    JcrUtils.readFile(session.getNode(uri), baos);
+                } catch (IOException e) {
+                    throw new RepositoryException("Cannot read asset node", e);
+                }
+                return null;
+            });
+        } catch (RepositoryException e) {
+            logger.debug("Cannot read asset node", e);
+            return null;
+        }
         return baos.toByteArray();
     }
+
+    /**
+     * Opens a stream on node binary, a pooled session is held until the stream is closed
+     *
+     * @return content stream
+     * @throws IOException if content cannot be read
+     */
+    @Override
+    public InputStream getContentStream() throws IOException {
+        try {
+            return sessionPool.readFile(uri);
+        } catch (RepositoryException e) {
+            throw new IOException("Cannot read asset node", e);
+        }
+    }
 }
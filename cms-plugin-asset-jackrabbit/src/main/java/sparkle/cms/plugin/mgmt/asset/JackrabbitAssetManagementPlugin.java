@@ -16,12 +16,11 @@ import sparkle.cms.plugin.mgmt.PluginStatus;
 
 import javax.jcr.*;
 import javax.jcr.security.Privilege;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.InputStream;
 import java.security.Principal;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
@@ -34,7 +33,7 @@ import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlugin<JackrabbitContainer, JackrabbitAsset> {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private Repository repository = null;
-    private Session session = null;
+    private JackrabbitSessionPool sessionPool = null;
 
     @Value("classpath:/META-INF/jackrabbit-plugin.properties")
     private Resource resource;
@@ -60,6 +59,9 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
         settings.add(new CmsSetting(getCompoundKey("repositoryURL"), getSetting("repositoryURL", String.class, "<change me>"), SettingType.INET));
         settings.add(new CmsSetting(getCompoundKey("username"), getSetting("username", String.class, "<change me>"), SettingType.TEXT));
         settings.add(new CmsSetting(getCompoundKey("password"), getSetting("password", String.class, "<change me>"), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("session.pool.size"), getSetting("session.pool.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.size"))), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("session.pool.timeout"), getSetting("session.pool.timeout", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.timeout"))), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("catalog.batch.size"), getCatalogBatchSize(), SettingType.INTEGER));
     }
 
     /**
@@ -79,6 +81,10 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
         String password = getSetting("password", String.class, properties.getProperty("plugin.password"));
         if (password.isEmpty() || password.equals("<change me>"))
             throw new PluginOperationException("Cannot define password");
+        Integer poolSize = getSetting("session.pool.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.size")));
+        if (poolSize < 1)
+            throw new PluginOperationException("Cannot define session pool size");
+        Integer poolTimeout = getSetting("session.pool.timeout", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.timeout")));
 
         if (!repositoryURL.equals("<change me>")) {
             if (!repositoryURL.endsWith("/")) {
@@ -89,11 +95,16 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
             parameters.put(JcrUtils.REPOSITORY_URI, repositoryURL);
             RepositoryFactory repositoryFactory = new RepositoryFactoryImpl();
             try {
+                if (sessionPool != null) {
+                    sessionPool.close();
+                }
                 repository = repositoryFactory.getRepository(parameters);
-                session = repository.login(new SimpleCredentials(username, password.toCharArray()));
-                Principal everyonePrincipal = AccessControlUtils.getEveryonePrincipal(session);
-                AccessControlUtils.allow(session.getRootNode(), everyonePrincipal.getName(), Privilege.JCR_ALL);
-                String user = session.getUserID();
+                sessionPool = new JackrabbitSessionPool(repository, new SimpleCredentials(username, password.toCharArray()), poolSize, poolTimeout);
+                String user = sessionPool.execute(session -> {
+                    Principal everyonePrincipal = AccessControlUtils.getEveryonePrincipal(session);
+                    AccessControlUtils.allow(session.getRootNode(), everyonePrincipal.getName(), Privilege.JCR_ALL);
+                    return session.getUserID();
+                });
                 String name = repository.getDescriptor(Repository.REP_NAME_DESC);
                 logger.debug("Logged in as " + user + " to a " + name + " repository.");
                 status = PluginStatus.ACTIVE;
@@ -104,23 +115,26 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     }
 
     /**
-     * Load all repository assets into central CMS database
+     * Feed all repository assets of a site to the catalog sink
      *
      * @param siteId         site id
      * @param siteRepository container repository
+     * @param sink           catalog sink
      * @throws PluginOperationException if error
      */
     @Override
-    protected void loadChildren(String siteId, JackrabbitContainer siteRepository) throws PluginOperationException {
+    protected void loadChildren(String siteId, JackrabbitContainer siteRepository, CmsAssetSink sink) throws PluginOperationException {
         try {
-            final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
-            final Iterable<Node> childNodes = JcrUtils.getChildNodes(siteNode);
-            for (Node node : childNodes) {
-                CmsAsset cmsAsset = new CmsAsset(siteId, node.getName(), new Date(), node.getName(), String.format("%s/%s", siteId, node.getName()));
-                cmsAsset.setType(findAssetTypeByFileName(node.getName()));
-
-                cmsAssetRepository.save(cmsAsset);
-            }
+            sessionPool.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Iterable<Node> childNodes = JcrUtils.getChildNodes(siteNode);
+                for (Node node : childNodes) {
+                    CmsAsset cmsAsset = new CmsAsset(siteId, node.getName(), new Date(), node.getName(), String.format("%s/%s", siteId, node.getName()));
+                    cmsAsset.setType(findAssetTypeByFileName(node.getName()));
+                    sink.accept(cmsAsset);
+                }
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Fedora Repository related error.", e);
         }
@@ -133,8 +147,9 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
      */
     @Override
     protected void finalizeObjects() throws PluginOperationException {
-        if (session != null) {
-            session.logout();
+        if (sessionPool != null) {
+            sessionPool.close();
+            sessionPool = null;
             repository = null;
         }
     }
@@ -149,9 +164,11 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public String createSiteRepository(String siteId) throws PluginOperationException {
         try {
-            final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
-            session.save();
-            return siteNode.getName();
+            return sessionPool.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                session.save();
+                return siteNode.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -166,9 +183,11 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public void deleteSiteRepository(String siteId) throws PluginOperationException {
         try {
-            final Node node = session.getRootNode().getNode(siteId);
-            node.remove();
-            session.save();
+            sessionPool.execute(session -> {
+                session.getRootNode().getNode(siteId).remove();
+                session.save();
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -185,11 +204,12 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public String createFolder(String siteId, String path) throws PluginOperationException {
         try {
-            Node rootNode = session.getRootNode();
-            final Node siteNode = JcrUtils.getOrAddFolder(rootNode, siteId);
-            final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
-            session.save();
-            return folder.getName();
+            return sessionPool.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
+                session.save();
+                return folder.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -205,9 +225,11 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public void deleteFolder(String siteId, String path) throws PluginOperationException {
         try {
-            final Node node = session.getRootNode().getNode(String.format("%s/%s", siteId, path));
-            node.remove();
-            session.save();
+            sessionPool.execute(session -> {
+                session.getRootNode().getNode(String.format("%s/%s", siteId, path)).remove();
+                session.save();
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -219,20 +241,21 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
      * @param siteId      site id
      * @param path        internal path
      * @param name        asset name
-     * @param data        asset data
+     * @param data        asset data stream
      * @param contentType content type
      * @return asset path
      * @throws PluginOperationException if operation failure
      */
     @Override
-    public String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException {
+    public String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException {
         try {
-            Node rootNode = session.getRootNode();
-            final Node siteNode = JcrUtils.getOrAddFolder(rootNode, siteId);
-            final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
-            final Node asset = JcrUtils.putFile(folder, name, contentType, new ByteArrayInputStream(data));
-            session.save();
-            return asset.getName();
+            return sessionPool.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
+                final Node asset = JcrUtils.putFile(folder, name, contentType, data);
+                session.save();
+                return asset.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -255,14 +278,58 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
             } else {
                 nodePath = String.format("%s/%s/%s", siteId, path, name);
             }
-            final Node node = session.getRootNode().getNode(nodePath);
-            node.remove();
-            session.save();
+            sessionPool.execute(session -> {
+                session.getRootNode().getNode(nodePath).remove();
+                session.save();
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
     }
 
+    /**
+     * Applies a batch of mutations with a single session save, nothing is persisted if any of them fails
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        try {
+            sessionPool.execute(session -> {
+                final Node rootNode = session.getRootNode();
+                for (AssetOperation operation : operations) {
+                    final Node siteNode = JcrUtils.getOrAddFolder(rootNode, operation.getSiteId());
+                    switch (operation.getType()) {
+                        case CREATE_FOLDER:
+                            JcrUtils.getOrAddFolder(siteNode, operation.getPath());
+                            break;
+                        case DELETE_FOLDER:
+                            siteNode.getNode(operation.getPath()).remove();
+                            break;
+                        case CREATE_ASSET:
+                            final Node folder = JcrUtils.getOrAddFolder(siteNode, operation.getPath());
+                            JcrUtils.putFile(folder, operation.getName(), operation.getContentType(), operation.getData());
+                            break;
+                        case DELETE_ASSET:
+                            final String path = operation.getPath();
+                            if (path.endsWith("/") || path.isEmpty()) {
+                                siteNode.getNode(String.format("%s%s", path, operation.getName())).remove();
+                            } else {
+                                siteNode.getNode(String.format("%s/%s", path, operation.getName())).remove();
+                            }
+                            break;
+                    }
+                }
+                session.save();
+                return null;
+            });
+        } catch (RepositoryException e) {
+            throw new PluginOperationException("Cannot apply batch", e);
+        }
+    }
+
     /**
      * Find a site Repository
      *
@@ -272,8 +339,10 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public JackrabbitContainer findSiteRepository(String siteId) throws PluginOperationException {
         try {
-            final Node node = session.getRootNode().getNode(siteId);
-            return new JackrabbitContainer(node.hasNodes(), node.getName());
+            return sessionPool.execute(session -> {
+                final Node node = session.getRootNode().getNode(siteId);
+                return new JackrabbitContainer(node.hasNodes(), node.getName());
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot find node", e);
         }
@@ -289,8 +358,10 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
     @Override
     public JackrabbitContainer findFolder(String siteId, String path) throws PluginOperationException {
         try {
-            final Node node = session.getRootNode().getNode(String.format("%s/%s", siteId, path));
-            return new JackrabbitContainer(node.hasNodes(), node.getName());
+            return sessionPool.execute(session -> {
+                final Node node = session.getRootNode().getNode(String.format("%s/%s", siteId, path));
+                return new JackrabbitContainer(node.hasNodes(), node.getName());
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot find node", e);
         }
@@ -313,11 +384,33 @@ public class JackrabbitAssetManagementPlugin extends AbstractAssetManagementPlug
             } else {
                 nodePath = String.format("%s/%s/%s", siteId, path, name);
             }
-            Node node = session.getRootNode().getNode(nodePath);
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            JcrUtils.readFile(node, baos);
-            return new JackrabbitAsset(node.getPath(), baos);
-        } catch (RepositoryException | IOException e) {
+            final String uri = sessionPool.execute(session -> session.getRootNode().getNode(nodePath).getPath());
+            return new JackrabbitAsset(uri, sessionPool);
+        } catch (RepositoryException e) {
+            throw new PluginOperationException("Cannot read asset node", e);
+        }
+    }
+
+    /**
+     * Opens a stream on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public InputStream findAssetContent(String siteId, String path, String name) throws PluginOperationException {
+        try {
+            String nodePath;
+            if (path.endsWith("/") || path.isEmpty()) {
+                nodePath = String.format("%s/%s%s", siteId, path, name);
+            } else {
+                nodePath = String.format("%s/%s/%s", siteId, path, name);
+            }
+            return sessionPool.readFile(String.format("/%s", nodePath));
+        } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot read asset node", e);
         }
     }
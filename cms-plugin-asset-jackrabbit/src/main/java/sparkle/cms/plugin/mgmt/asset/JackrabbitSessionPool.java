@@ -0,0 +1,152 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import org.apache.jackrabbit.commons.JcrUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JackrabbitSessionPool
+ * Bounded pool of JCR sessions, each session is used by a single thread between borrow and release.
+ */
+public class JackrabbitSessionPool {
+    private final Repository repository;
+    private final Credentials credentials;
+    private final long timeout;
+    private final Semaphore permits;
+    private final BlockingQueue<Session> idle;
+    private volatile boolean closed;
+
+    /**
+     * Work executed with a borrowed session
+     *
+     * @param <T> result type
+     */
+    public interface SessionCallback<T> {
+        T doInSession(Session session) throws RepositoryException;
+    }
+
+    /**
+     * Creates a pool, sessions are logged in lazily
+     *
+     * @param repository  JCR repository
+     * @param credentials login credentials
+     * @param size        maximum number of sessions
+     * @param timeout     maximum wait for a session in milliseconds
+     */
+    public JackrabbitSessionPool(Repository repository, Credentials credentials, int size, long timeout) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.repository = repository;
+        this.credentials = credentials;
+        this.timeout = timeout;
+        this.permits = new Semaphore(size, true);
+        this.idle = new LinkedBlockingQueue<>(size);
+    }
+
+    /**
+     * Borrows a live session, logging in a new one if none is idle
+     *
+     * @return session
+     * @throws RepositoryException if pool is exhausted or login fails
+     */
+    public Session borrow() throws RepositoryException {
+        if (closed) {
+            throw new RepositoryException("Session pool closed");
+        }
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RepositoryException(String.format("No session available within %d ms", timeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted waiting for a session", e);
+        }
+        try {
+            Session session;
+            while ((session = idle.poll()) != null) {
+                if (session.isLive()) {
+                    return session;
+                }
+            }
+            return repository.login(credentials);
+        } catch (RepositoryException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a session to the pool, pending changes are discarded
+     *
+     * @param session borrowed session
+     */
+    public void release(Session session) {
+        try {
+            if (!closed && session.isLive()) {
+                session.refresh(false);
+                if (idle.offer(session)) {
+                    return;
+                }
+            }
+            session.logout();
+        } catch (RepositoryException e) {
+            session.logout();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Executes work with a borrowed session and releases it
+     *
+     * @param callback work
+     * @param <T>      result type
+     * @return work result
+     * @throws RepositoryException if work or borrowing fails
+     */
+    public <T> T execute(SessionCallback<T> callback) throws RepositoryException {
+        final Session session = borrow();
+        try {
+            return callback.doInSession(session);
+        } finally {
+            release(session);
+        }
+    }
+
+    /**
+     * Opens a stream on a file node binary, the session stays borrowed until the stream is closed
+     *
+     * @param path absolute node path
+     * @return content stream
+     * @throws RepositoryException if node cannot be read
+     */
+    public InputStream readFile(String path) throws RepositoryException {
+        final Session session = borrow();
+        try {
+            return new ReleasingInputStream(JcrUtils.readFile(session.getNode(path)), () -> release(session));
+        } catch (RepositoryException | RuntimeException e) {
+            release(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Logs out idle sessions, borrowed ones are logged out when released
+     */
+    public void close() {
+        closed = true;
+        Session session;
+        while ((session = idle.poll()) != null) {
+            session.logout();
+        }
+    }
+}
@@ -30,8 +30,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -185,6 +190,30 @@ public class JackrabbitAssetManagementPluginTest extends AbstractMongoConfigurat
         assertArrayEquals(asset.getContent(), baos.toByteArray());
     }
 
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        plugin.doActivate();
+        plugin.createSiteRepository(siteId);
+        final int workers = 4;
+        for (int i = 0; i < workers; i++) {
+            plugin.createFolder(siteId, String.format("folder%d", i));
+        }
+        final byte[] data = readDataFromClasspath().toByteArray();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            final String folder = String.format("folder%d", i);
+            results.add(executor.submit(() -> {
+                plugin.createAsset(siteId, folder, "img.png", data, "image/png");
+                return plugin.findAsset(siteId, folder, "img.png").getContent();
+            }));
+        }
+        for (Future<byte[]> result : results) {
+            assertArrayEquals(data, result.get());
+        }
+        executor.shutdown();
+    }
+
     private Session getSession() throws RepositoryException {
         Map<String, String> parameters = new HashMap<>();
         parameters.put(JcrUtils.REPOSITORY_URI, "file:///temp");
@@ -1,9 +1,13 @@
 package sparkle.cms.plugin.mgmt.asset;
 
+import org.apache.jackrabbit.commons.JcrUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jcr.RepositoryException;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * OakAsset
@@ -12,11 +16,11 @@ import java.io.ByteArrayOutputStream;
 public class OakAsset implements Asset {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String uri;
-    private final ByteArrayOutputStream baos;
+    private final OakSessionProvider sessionProvider;
 
-    public OakAsset(String uri, ByteArrayOutputStream baos) {
+    public OakAsset(String uri, OakSessionProvider sessionProvider) {
         this.uri = uri;
-        this.baos = baos;
+        this.sessionProvider = sessionProvider;
     }
 
     /**
@@ -30,12 +34,41 @@ public class OakAsset implements Asset {
     }
 
     /**
-     * Get content as byte array
+     * Get content as byte array, binary is read on each call
      *
      * @return byte array
      */
     @Override
     public byte[] getContent() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            sessionProvider.execute(session -> {
+                try {
+                    JcrUtils.readFile(session.getNode(uri), baos);
+                } catch (IOException e) {
+                    throw new RepositoryException("Cannot read asset node", e);
+                }
+                return null;
+            });
+        } catch (RepositoryException e) {
+            logger.debug("Cannot read asset node", e);
+            return null;
+        }
         return baos.toByteArray();
     }
+
+    /**
+     * Opens a stream on node binary
+     *
+     * @return content stream
+     * @throws IOException if content cannot be read
+     */
+    @Override
+    public InputStream getContentStream() throws IOException {
+        try {
+            return sessionProvider.readFile(uri);
+        } catch (RepositoryException e) {
+            throw new IOException("Cannot read asset node", e);
+        }
+    }
 }
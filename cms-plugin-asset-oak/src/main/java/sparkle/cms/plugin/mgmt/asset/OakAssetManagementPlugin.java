@@ -21,11 +21,10 @@ import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 
 import javax.jcr.*;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.InputStream;
 import java.net.UnknownHostException;
 import java.util.Date;
+import java.util.List;
 
 import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 
@@ -38,7 +37,7 @@ import static sparkle.cms.plugin.mgmt.asset.AssetUtils.findAssetTypeByFileName;
 public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakContainer, OakAsset> {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private Repository repository = null;
-    private Session session = null;
+    private OakSessionProvider sessionProvider = null;
 
     @Value("classpath:/META-INF/oak-plugin.properties")
     private Resource resource;
@@ -46,6 +45,7 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Autowired
     private Mongo mongo;
     private DocumentNodeStore documentNodeStore;
+    private MongoClient mongoClient;
 
     /**
      * Get spring initialized resource
@@ -70,6 +70,10 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
         settings.add(new CmsSetting(getCompoundKey("dbPort"), getSetting("dbPort", Integer.class, 0), SettingType.INTEGER));
         settings.add(new CmsSetting(getCompoundKey("username"), getSetting("username", String.class, "<change me>"), SettingType.TEXT));
         settings.add(new CmsSetting(getCompoundKey("password"), getSetting("password", String.class, "<change me>"), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("session.mode"), getSetting("session.mode", String.class, properties.getProperty("plugin.session.mode")), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("session.pool.size"), getSetting("session.pool.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.size"))), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("session.pool.timeout"), getSetting("session.pool.timeout", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.timeout"))), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("catalog.batch.size"), getCatalogBatchSize(), SettingType.INTEGER));
     }
 
     /**
@@ -97,16 +101,25 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
         String password = getSetting("password", String.class, properties.getProperty("plugin.password"));
         if (password.isEmpty() || password.equals("<change me>"))
             throw new PluginOperationException("Cannot define password");
+        String sessionMode = getSetting("session.mode", String.class, properties.getProperty("plugin.session.mode"));
+        if (!sessionMode.equals(OakSessionProvider.POOLED_MODE) && !sessionMode.equals(OakSessionProvider.OPERATION_MODE))
+            throw new PluginOperationException(String.format("Invalid session mode: %s", sessionMode));
+        Integer poolSize = getSetting("session.pool.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.size")));
+        if (poolSize < 1)
+            throw new PluginOperationException("Cannot define session pool size");
+        Integer poolTimeout = getSetting("session.pool.timeout", Integer.class, Integer.parseInt(properties.getProperty("plugin.session.pool.timeout")));
 
         if (!dbName.equals("<change me>")) {
             try {
-                final DB db = new MongoClient(dbHost, dbPort).getDB(dbName);
+                closeRepository();
+                mongoClient = new MongoClient(dbHost, dbPort);
+                final DB db = mongoClient.getDB(dbName);
                 documentNodeStore = new DocumentMK.Builder().
                         setMongoDB(db).getNodeStore();
                 repository = new Jcr(new Oak(documentNodeStore)).createRepository();
-                session = repository.login(new SimpleCredentials(username, password.toCharArray()));
+                sessionProvider = new OakSessionProvider(repository, new SimpleCredentials(username, password.toCharArray()), sessionMode, poolSize, poolTimeout);
 
-                String user = session.getUserID();
+                String user = sessionProvider.execute(Session::getUserID);
                 String name = repository.getDescriptor(Repository.REP_NAME_DESC);
                 logger.debug("Logged in as " + user + " to a " + name + " repository.");
                 status = PluginStatus.ACTIVE;
@@ -117,23 +130,26 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     }
 
     /**
-     * Load all repository assets into central CMS database
+     * Feed all repository assets of a site to the catalog sink
      *
      * @param siteId         site id
      * @param siteRepository container repository
+     * @param sink           catalog sink
      * @throws PluginOperationException if error
      */
     @Override
-    protected void loadChildren(String siteId, OakContainer siteRepository) throws PluginOperationException {
+    protected void loadChildren(String siteId, OakContainer siteRepository, CmsAssetSink sink) throws PluginOperationException {
         try {
-            final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
-            final Iterable<Node> childNodes = JcrUtils.getChildNodes(siteNode);
-            for (Node node : childNodes) {
-                CmsAsset cmsAsset = new CmsAsset(siteId, node.getName(), new Date(), node.getName(), String.format("%s/%s", siteId, node.getName()));
-                cmsAsset.setType(findAssetTypeByFileName(node.getName()));
-
-                cmsAssetRepository.save(cmsAsset);
-            }
+            sessionProvider.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Iterable<Node> childNodes = JcrUtils.getChildNodes(siteNode);
+                for (Node node : childNodes) {
+                    CmsAsset cmsAsset = new CmsAsset(siteId, node.getName(), new Date(), node.getName(), String.format("%s/%s", siteId, node.getName()));
+                    cmsAsset.setType(findAssetTypeByFileName(node.getName()));
+                    sink.accept(cmsAsset);
+                }
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Fedora Repository related error.", e);
         }
@@ -146,9 +162,24 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
      */
     @Override
     protected void finalizeObjects() throws PluginOperationException {
-        if (session != null) {
-            session.logout();
+        closeRepository();
+    }
+
+    /**
+     * Releases sessions, node store and database connection of the current repository, if any
+     */
+    private void closeRepository() {
+        if (sessionProvider != null) {
+            sessionProvider.close();
+            sessionProvider = null;
+        }
+        if (documentNodeStore != null) {
             documentNodeStore.dispose();
+            documentNodeStore = null;
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+            mongoClient = null;
         }
     }
 
@@ -162,9 +193,11 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Override
     public String createSiteRepository(String siteId) throws PluginOperationException {
         try {
-            final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
-            session.save();
-            return siteNode.getName();
+            return sessionProvider.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                session.save();
+                return siteNode.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -179,11 +212,13 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Override
     public void deleteSiteRepository(String siteId) throws PluginOperationException {
         try {
-            if (session.getRootNode().hasNode(siteId)) {
-                final Node node = session.getRootNode().getNode(siteId);
-                node.remove();
-                session.save();
-            }
+            sessionProvider.execute(session -> {
+                if (session.getRootNode().hasNode(siteId)) {
+                    session.getRootNode().getNode(siteId).remove();
+                    session.save();
+                }
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -200,11 +235,12 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Override
     public String createFolder(String siteId, String path) throws PluginOperationException {
         try {
-            Node rootNode = session.getRootNode();
-            final Node siteNode = JcrUtils.getOrAddFolder(rootNode, siteId);
-            final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
-            session.save();
-            return folder.getName();
+            return sessionProvider.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Node folder = JcrUtils.getOrAddFolder(siteNode, path);
+                session.save();
+                return folder.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -221,11 +257,13 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     public void deleteFolder(String siteId, String path) throws PluginOperationException {
         final String nodePath = String.format("%s/%s", siteId, path);
         try {
-            if (session.getRootNode().hasNode(nodePath)) {
-                final Node node = session.getRootNode().getNode(nodePath);
-                node.remove();
-                session.save();
-            }
+            sessionProvider.execute(session -> {
+                if (session.getRootNode().hasNode(nodePath)) {
+                    session.getRootNode().getNode(nodePath).remove();
+                    session.save();
+                }
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -237,20 +275,21 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
      * @param siteId      site id
      * @param path        internal path
      * @param name        asset name
-     * @param data        asset data
+     * @param data        asset data stream
      * @param contentType content type
      * @return asset path
      * @throws PluginOperationException if operation failure
      */
     @Override
-    public String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException {
+    public String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException {
         try {
-            Node rootNode = session.getRootNode();
-            final Node siteNode = JcrUtils.getOrAddFolder(rootNode, siteId);
-            final Node folder = path.isEmpty() ? siteNode : JcrUtils.getOrAddFolder(siteNode, path);
-            final Node asset = JcrUtils.putFile(folder, name, contentType, new ByteArrayInputStream(data));
-            session.save();
-            return asset.getName();
+            return sessionProvider.execute(session -> {
+                final Node siteNode = JcrUtils.getOrAddFolder(session.getRootNode(), siteId);
+                final Node folder = path.isEmpty() ? siteNode : JcrUtils.getOrAddFolder(siteNode, path);
+                final Node asset = JcrUtils.putFile(folder, name, contentType, data);
+                session.save();
+                return asset.getName();
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
@@ -273,16 +312,66 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
             nodePath = String.format("%s/%s/%s", siteId, path, name);
         }
         try {
-            if (session.getRootNode().hasNode(nodePath)) {
-                final Node node = session.getRootNode().getNode(nodePath);
-                node.remove();
-                session.save();
-            }
+            sessionProvider.execute(session -> {
+                if (session.getRootNode().hasNode(nodePath)) {
+                    session.getRootNode().getNode(nodePath).remove();
+                    session.save();
+                }
+                return null;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot create node", e);
         }
     }
 
+    /**
+     * Applies a batch of mutations with a single session save, nothing is persisted if any of them fails
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        try {
+            sessionProvider.execute(session -> {
+                final Node rootNode = session.getRootNode();
+                for (AssetOperation operation : operations) {
+                    final Node siteNode = JcrUtils.getOrAddFolder(rootNode, operation.getSiteId());
+                    final String path = operation.getPath();
+                    switch (operation.getType()) {
+                        case CREATE_FOLDER:
+                            JcrUtils.getOrAddFolder(siteNode, path);
+                            break;
+                        case DELETE_FOLDER:
+                            if (siteNode.hasNode(path)) {
+                                siteNode.getNode(path).remove();
+                            }
+                            break;
+                        case CREATE_ASSET:
+                            final Node folder = path.isEmpty() ? siteNode : JcrUtils.getOrAddFolder(siteNode, path);
+                            JcrUtils.putFile(folder, operation.getName(), operation.getContentType(), operation.getData());
+                            break;
+                        case DELETE_ASSET:
+                            final String nodePath;
+                            if (path.endsWith("/") || path.isEmpty()) {
+                                nodePath = String.format("%s%s", path, operation.getName());
+                            } else {
+                                nodePath = String.format("%s/%s", path, operation.getName());
+                            }
+                            if (siteNode.hasNode(nodePath)) {
+                                siteNode.getNode(nodePath).remove();
+                            }
+                            break;
+                    }
+                }
+                session.save();
+                return null;
+            });
+        } catch (RepositoryException e) {
+            throw new PluginOperationException("Cannot apply batch", e);
+        }
+    }
+
     /**
      * Find a site Repository
      *
@@ -292,12 +381,14 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Override
     public OakContainer findSiteRepository(String siteId) throws PluginOperationException {
         try {
-            OakContainer oakContainer = null;
-            if (session.getRootNode().hasNode(siteId)) {
-                final Node node = session.getRootNode().getNode(siteId);
-                oakContainer = new OakContainer(node.hasNodes(), node.getName());
-            }
-            return oakContainer;
+            return sessionProvider.execute(session -> {
+                OakContainer oakContainer = null;
+                if (session.getRootNode().hasNode(siteId)) {
+                    final Node node = session.getRootNode().getNode(siteId);
+                    oakContainer = new OakContainer(node.hasNodes(), node.getName());
+                }
+                return oakContainer;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot find node", e);
         }
@@ -313,12 +404,14 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
     @Override
     public OakContainer findFolder(String siteId, String path) throws PluginOperationException {
         try {
-            OakContainer oakContainer = null;
-            if (session.getRootNode().hasNode(siteId)) {
-                final Node node = session.getRootNode().getNode(String.format("%s/%s", siteId, path));
-                oakContainer = new OakContainer(node.hasNodes(), node.getName());
-            }
-            return oakContainer;
+            return sessionProvider.execute(session -> {
+                OakContainer oakContainer = null;
+                if (session.getRootNode().hasNode(siteId)) {
+                    final Node node = session.getRootNode().getNode(String.format("%s/%s", siteId, path));
+                    oakContainer = new OakContainer(node.hasNodes(), node.getName());
+                }
+                return oakContainer;
+            });
         } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot find node", e);
         }
@@ -341,15 +434,40 @@ public class OakAssetManagementPlugin extends AbstractAssetManagementPlugin<OakC
             nodePath = String.format("%s/%s/%s", siteId, path, name);
         }
         try {
-            OakAsset oakAsset = null;
-            if (session.getRootNode().hasNode(nodePath)) {
-                Node node = session.getRootNode().getNode(nodePath);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                JcrUtils.readFile(node, baos);
-                oakAsset = new OakAsset(node.getPath(), baos);
-            }
-            return oakAsset;
-        } catch (RepositoryException | IOException e) {
+            return sessionProvider.execute(session -> {
+                OakAsset oakAsset = null;
+                if (session.getRootNode().hasNode(nodePath)) {
+                    oakAsset = new OakAsset(session.getRootNode().getNode(nodePath).getPath(), sessionProvider);
+                }
+                return oakAsset;
+            });
+        } catch (RepositoryException e) {
+            throw new PluginOperationException("Cannot read asset node", e);
+        }
+    }
+
+    /**
+     * Opens a stream on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public InputStream findAssetContent(String siteId, String path, String name) throws PluginOperationException {
+        String nodePath;
+        if (path.endsWith("/") || path.isEmpty()) {
+            nodePath = String.format("%s/%s%s", siteId, path, name);
+        } else {
+            nodePath = String.format("%s/%s/%s", siteId, path, name);
+        }
+        try {
+            return sessionProvider.readFile(String.format("/%s", nodePath));
+        } catch (PathNotFoundException e) {
+            throw new PluginOperationException(String.format("Cannot find asset node: %s", nodePath), e);
+        } catch (RepositoryException e) {
             throw new PluginOperationException("Cannot read asset node", e);
         }
     }
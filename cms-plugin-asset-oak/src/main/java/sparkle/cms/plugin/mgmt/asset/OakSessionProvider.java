@@ -0,0 +1,157 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import org.apache.jackrabbit.commons.JcrUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OakSessionProvider
+ * Hands out Oak sessions so that no session is shared among threads, at most size sessions are held at once.
+ * In pooled mode a session is borrowed for each operation, refreshed to the latest repository state,
+ * and returned afterwards. In operation mode a session is logged in for each operation and logged out afterwards.
+ */
+public class OakSessionProvider {
+    public static final String POOLED_MODE = "pooled";
+    public static final String OPERATION_MODE = "operation";
+
+    private final Repository repository;
+    private final Credentials credentials;
+    private final boolean pooled;
+    private final long timeout;
+    private final Semaphore permits;
+    private final BlockingQueue<Session> idle;
+    private volatile boolean closed;
+
+    /**
+     * Work executed with a session
+     *
+     * @param <T> result type
+     */
+    public interface SessionCallback<T> {
+        T doInSession(Session session) throws RepositoryException;
+    }
+
+    /**
+     * Creates a provider, sessions are logged in lazily
+     *
+     * @param repository  JCR repository
+     * @param credentials login credentials
+     * @param mode        {@link #POOLED_MODE} or {@link #OPERATION_MODE}
+     * @param size        maximum number of sessions held at once
+     * @param timeout     maximum wait for a session in milliseconds
+     */
+    public OakSessionProvider(Repository repository, Credentials credentials, String mode, int size, long timeout) {
+        if (!POOLED_MODE.equals(mode) && !OPERATION_MODE.equals(mode)) {
+            throw new IllegalArgumentException(String.format("Unknown session mode: %s", mode));
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.repository = repository;
+        this.credentials = credentials;
+        this.pooled = POOLED_MODE.equals(mode);
+        this.timeout = timeout;
+        this.permits = new Semaphore(size, true);
+        this.idle = new LinkedBlockingQueue<>(size);
+    }
+
+    /**
+     * Executes work with a session held by the current thread until work completes
+     *
+     * @param callback work
+     * @param <T>      result type
+     * @return work result
+     * @throws RepositoryException if work or login fails, or no session is available in time
+     */
+    public <T> T execute(SessionCallback<T> callback) throws RepositoryException {
+        final Session session = acquire();
+        try {
+            return callback.doInSession(session);
+        } finally {
+            release(session);
+        }
+    }
+
+    /**
+     * Opens a stream on a file node binary, the session is held by the stream until it is closed
+     *
+     * @param path absolute node path
+     * @return content stream
+     * @throws RepositoryException if node cannot be read
+     */
+    public InputStream readFile(String path) throws RepositoryException {
+        final Session session = acquire();
+        try {
+            return new ReleasingInputStream(JcrUtils.readFile(session.getNode(path)), () -> release(session));
+        } catch (RepositoryException | RuntimeException e) {
+            release(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Logs out idle sessions, held ones are logged out when released; further operations fail
+     */
+    public void close() {
+        closed = true;
+        Session session;
+        while ((session = idle.poll()) != null) {
+            session.logout();
+        }
+    }
+
+    private Session acquire() throws RepositoryException {
+        if (closed) {
+            throw new RepositoryException("Session provider closed");
+        }
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RepositoryException(String.format("No session available within %d ms", timeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted waiting for a session", e);
+        }
+        try {
+            if (pooled) {
+                Session session;
+                while ((session = idle.poll()) != null) {
+                    try {
+                        if (session.isLive()) {
+                            session.refresh(false);
+                            return session;
+                        }
+                    } catch (RepositoryException e) {
+                        session.logout();
+                    }
+                }
+            }
+            return repository.login(credentials);
+        } catch (RepositoryException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(Session session) {
+        try {
+            if (pooled && !closed && session.isLive() && idle.offer(session)) {
+                // provider may have been closed while offering
+                if (!closed || !idle.remove(session)) {
+                    return;
+                }
+            }
+            session.logout();
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -34,6 +34,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -158,6 +163,25 @@ public class OakAssetManagementPluginTest extends AbstractMongoConfiguration {
         assertNull(imageAsset);
     }
 
+    @Test
+    public void testConcurrentRead() throws Exception {
+        plugin.createSiteRepository(siteId);
+        plugin.createFolder(siteId, "folder");
+        final byte[] data = readDataFromClasspath().toByteArray();
+        plugin.createAsset(siteId, "folder", "img.png", data, "image/png");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> plugin.findAsset(siteId, "folder", "img.png").getContent()));
+        }
+        for (Future<byte[]> result : results) {
+            assertArrayEquals(data, result.get());
+        }
+        executor.shutdown();
+        plugin.deleteSiteRepository(siteId);
+    }
+
     private Session openSession() throws RepositoryException, UnknownHostException {
         documentNodeStore = new DocumentMK.Builder().
                 setMongoDB(mongo().getDB("cms-test-asset")).getNodeStore();
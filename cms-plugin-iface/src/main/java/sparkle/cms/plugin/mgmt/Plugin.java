@@ -58,6 +58,18 @@ public interface Plugin {
      */
     void setFilter(String filter);
 
+    /**
+     * Invalidate cached settings, next lookups read them from repository
+     */
+    void invalidateSettings();
+
+    /**
+     * Invalidate a cached setting for every filter, next lookups read it from repository
+     *
+     * @param key setting compound key
+     */
+    void invalidateSetting(String key);
+
     /**
      * Activates plugin
      *
@@ -12,8 +12,10 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PluginImpl
@@ -21,8 +23,11 @@ import java.util.UUID;
  */
 public abstract class PluginImpl implements Plugin {
     private static final String VERSION = "1.0";
+    private static final long DEFAULT_SETTING_CACHE_TTL = 60000L;
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final PluginType type;
+    private final Map<String, CachedSetting> settingCache = new ConcurrentHashMap<>();
+    private long settingCacheTtl = DEFAULT_SETTING_CACHE_TTL;
 
     protected String id;
     protected String name;
@@ -108,6 +113,25 @@ public abstract class PluginImpl implements Plugin {
         this.filter = filter;
     }
 
+    /**
+     * Invalidate cached settings
+     */
+    @Override
+    public void invalidateSettings() {
+        settingCache.clear();
+    }
+
+    /**
+     * Invalidate a cached setting for every filter
+     *
+     * @param key setting compound key
+     */
+    @Override
+    public void invalidateSetting(String key) {
+        final String prefix = String.format("%s|", key);
+        settingCache.keySet().removeIf(cacheKey -> cacheKey.startsWith(prefix));
+    }
+
     /**
      * Get spring initialized resource
      *
@@ -154,6 +178,9 @@ public abstract class PluginImpl implements Plugin {
                 id = properties.getProperty("plugin.id");
             }
             name = properties.getProperty("plugin.name");
+            if (properties.containsKey("plugin.setting.cache.ttl")) {
+                settingCacheTtl = Long.parseLong(properties.getProperty("plugin.setting.cache.ttl"));
+            }
         } catch (IOException e) {
             logger.error("Cannot load properties", e);
         }
@@ -175,7 +202,8 @@ public abstract class PluginImpl implements Plugin {
     protected abstract void doValidate() throws PluginOperationException;
 
     /**
-     * Get a setting according the type chosen
+     * Get a setting according the type chosen. Found settings are cached by compound key
+     * and filter until TTL expires or settings are invalidated.
      *
      * @param key   setting key
      * @param clazz class parameter
@@ -185,10 +213,18 @@ public abstract class PluginImpl implements Plugin {
      */
     protected <T> T getSetting(String key, Class<T> clazz, T defaultValue) throws PluginOperationException {
         String compoundKey = getCompoundKey(key);
+        String cacheKey = String.format("%s|%s", compoundKey, filter);
+        CachedSetting cachedSetting = settingCache.get(cacheKey);
+        if (cachedSetting != null && !cachedSetting.isExpired()) {
+            return clazz.cast(cachedSetting.value);
+        }
         List<CmsSetting> settings = cmsSettingRepository.findByKeyAndUserId(compoundKey, filter);
         if (!settings.isEmpty() && settings.get(0).getKey().equals(compoundKey)) {
-            return clazz.cast(settings.get(0).getValue());
+            Object value = settings.get(0).getValue();
+            settingCache.put(cacheKey, new CachedSetting(value, System.currentTimeMillis() + settingCacheTtl));
+            return clazz.cast(value);
         }
+        settingCache.remove(cacheKey);
         if (defaultValue != null) {
             return defaultValue;
         }
@@ -199,4 +235,18 @@ public abstract class PluginImpl implements Plugin {
     protected String getCompoundKey(String key) {
         return String.format("%s.%s", id, key);
     }
+
+    private static class CachedSetting {
+        private final Object value;
+        private final long expiration;
+
+        private CachedSetting(Object value, long expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiration;
+        }
+    }
 }
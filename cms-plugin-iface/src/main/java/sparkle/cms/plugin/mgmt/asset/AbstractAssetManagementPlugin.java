@@ -1,51 +1,260 @@
 package sparkle.cms.plugin.mgmt.asset;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import sparkle.cms.data.CmsAssetRepository;
 import sparkle.cms.data.CmsSiteRepository;
+import sparkle.cms.domain.CmsAsset;
 import sparkle.cms.domain.CmsSite;
 import sparkle.cms.plugin.mgmt.PluginImpl;
 import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginType;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  * AbstractAssetManagementPlugin
  * Created by bazzoni on 07/05/2015.
  */
 public abstract class AbstractAssetManagementPlugin<C extends Container, A extends Asset> extends PluginImpl implements AssetManagementPlugin<C, A> {
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_CATALOG_BATCH_SIZE = 500;
+
 	@Autowired
     protected CmsSiteRepository cmsSiteRepository;
 
     @Autowired
     protected CmsAssetRepository cmsAssetRepository;
 
+    @Autowired
+    protected MongoTemplate mongoTemplate;
+
     public AbstractAssetManagementPlugin() {
         super(PluginType.ASSET_MGMT);
     }
 
     /**
-     * Executes plugin default start up tasks
+     * Creates an asset for the site and folder
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException {
+        return createAsset(siteId, path, name, new ByteArrayInputStream(data), contentType);
+    }
+
+    /**
+     * Creates an asset for the site and folder reading data from a channel.
+     * Channel is consumed but not closed.
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data channel
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public String createAsset(String siteId, String path, String name, ReadableByteChannel data, String contentType) throws PluginOperationException {
+        return createAsset(siteId, path, name, Channels.newInputStream(data), contentType);
+    }
+
+    /**
+     * Opens a channel on asset content. Caller must close it.
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content channel
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public ReadableByteChannel findAssetChannel(String siteId, String path, String name) throws PluginOperationException {
+        return Channels.newChannel(findAssetContent(siteId, path, name));
+    }
+
+    /**
+     * Transfers asset content to target channel through a bounded buffer
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @param target target channel, not closed
+     * @return number of transferred bytes
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public long transferAsset(String siteId, String path, String name, WritableByteChannel target) throws PluginOperationException {
+        try (ReadableByteChannel source = findAssetChannel(siteId, path, name)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+            long transferred = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    transferred += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return transferred;
+        } catch (IOException e) {
+            throw new PluginOperationException("Cannot transfer asset", e);
+        }
+    }
+
+    /**
+     * Applies a batch of mutations one by one, backends supporting a single commit override it
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        for (AssetOperation operation : operations) {
+            switch (operation.getType()) {
+                case CREATE_FOLDER:
+                    createFolder(operation.getSiteId(), operation.getPath());
+                    break;
+                case DELETE_FOLDER:
+                    deleteFolder(operation.getSiteId(), operation.getPath());
+                    break;
+                case CREATE_ASSET:
+                    createAsset(operation.getSiteId(), operation.getPath(), operation.getName(), operation.getData(), operation.getContentType());
+                    break;
+                case DELETE_ASSET:
+                    deleteAsset(operation.getSiteId(), operation.getPath(), operation.getName());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Executes plugin default start up tasks. Catalog is synchronized incrementally,
+     * site by site in parallel, so it stays queryable during the whole rebuild.
      *
      * @throws PluginOperationException if error
      */
     @Override
     public void doExecuteStartupTasks() throws PluginOperationException {
-        cmsAssetRepository.deleteAll();
         List<CmsSite> cmsSites = cmsSiteRepository.findAll();
-		for (CmsSite cmsSite : cmsSites) {
-            final C siteRepository = findSiteRepository(cmsSite.getId());
-            if (siteRepository == null) {
-                createSiteRepository(cmsSite.getId());
-			} else {
-                if (siteRepository.hasChildren()) {
-                    loadChildren(cmsSite.getId(), siteRepository);
-                }
+        List<String> siteIds = new ArrayList<>();
+        for (CmsSite cmsSite : cmsSites) {
+            siteIds.add(cmsSite.getId());
+        }
+        mongoTemplate.remove(new Query(where("siteId").nin(siteIds)), CmsAsset.class);
+        if (siteIds.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(siteIds.size(), getSyncParallelism()));
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (String siteId : siteIds) {
+                results.add(executor.submit(() -> {
+                    synchronizeSite(siteId);
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PluginOperationException("Catalog synchronization interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PluginOperationException) {
+                throw (PluginOperationException) e.getCause();
             }
+            throw new PluginOperationException("Catalog synchronization failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
 	}
 
+    /**
+     * Synchronizes catalog of a site with backend contents, saving new and changed assets
+     * in batches and removing stale ones in bulk
+     *
+     * @param siteId site id
+     * @throws PluginOperationException if error
+     */
+    protected void synchronizeSite(String siteId) throws PluginOperationException {
+        final C siteRepository = findSiteRepository(siteId);
+        if (siteRepository == null) {
+            createSiteRepository(siteId);
+        }
+
+        final Query existingQuery = new Query(where("siteId").is(siteId));
+        existingQuery.fields().include("uri").include("name").include("type").include("date");
+        final Map<String, CmsAsset> catalogued = new HashMap<>();
+        for (CmsAsset cmsAsset : mongoTemplate.find(existingQuery, CmsAsset.class)) {
+            catalogued.put(cmsAsset.getUri(), cmsAsset);
+        }
+
+        try (CmsAssetSink sink = new CmsAssetSink(cmsAssetRepository, getCatalogBatchSize(), hasModificationDates(), catalogued)) {
+            if (siteRepository != null && siteRepository.hasChildren()) {
+                loadChildren(siteId, siteRepository, sink);
+            }
+            sink.flush();
+            if (!sink.getStaleUris().isEmpty()) {
+                mongoTemplate.remove(new Query(where("siteId").is(siteId).and("uri").in(sink.getStaleUris())), CmsAsset.class);
+            }
+        }
+    }
+
+    /**
+     * Get number of catalog entries saved at once during synchronization
+     *
+     * @return batch size
+     * @throws PluginOperationException if error
+     */
+    protected int getCatalogBatchSize() throws PluginOperationException {
+        return getSetting("catalog.batch.size", Integer.class,
+                Integer.parseInt(properties.getProperty("plugin.catalog.batch.size", String.valueOf(DEFAULT_CATALOG_BATCH_SIZE))));
+    }
+
+    /**
+     * Tells whether assets fed by {@link #loadChildren} carry their modification date. Backends
+     * feeding the load time must return false, so that dates alone do not resave unchanged entries.
+     *
+     * @return true if dates are compared during synchronization
+     */
+    protected boolean hasModificationDates() {
+        return false;
+    }
+
+    /**
+     * Get number of sites synchronized concurrently. Backends whose
+     * connections cannot be shared among threads must return 1.
+     *
+     * @return parallelism
+     */
+    protected int getSyncParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Executes plugin default shutdown tasks
      *
@@ -57,13 +266,14 @@ public abstract class AbstractAssetManagementPlugin<C extends Container, A exten
     }
 
     /**
-     * Load all repository assets into central CMS database
+     * Feed all repository assets of a site to the catalog sink
      *
      * @param siteId         site id
      * @param siteRepository container repository
+     * @param sink           catalog sink
      * @throws PluginOperationException if error
      */
-    protected abstract void loadChildren(String siteId, C siteRepository) throws PluginOperationException;
+    protected abstract void loadChildren(String siteId, C siteRepository, CmsAssetSink sink) throws PluginOperationException;
 
     /**
      * Executes specific finalization tasks
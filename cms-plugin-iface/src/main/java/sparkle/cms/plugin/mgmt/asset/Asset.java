@@ -1,5 +1,8 @@
 package sparkle.cms.plugin.mgmt.asset;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Asset
  * Created by bazzoni on 07/05/2015.
@@ -18,4 +21,12 @@ public interface Asset {
      * @return byte array
      */
     byte[] getContent();
+
+    /**
+     * Opens a stream on content, content is read lazily
+     *
+     * @return content stream, caller must close it
+     * @throws IOException if content cannot be read
+     */
+    InputStream getContentStream() throws IOException;
 }
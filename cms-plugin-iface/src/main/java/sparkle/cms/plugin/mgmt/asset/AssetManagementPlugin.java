@@ -3,6 +3,11 @@ package sparkle.cms.plugin.mgmt.asset;
 import sparkle.cms.plugin.mgmt.Plugin;
 import sparkle.cms.plugin.mgmt.PluginOperationException;
 
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
 /**
  * AssetManagementPlugin
  * Created by bazzoni on 06/05/2015.
@@ -57,6 +62,34 @@ public interface AssetManagementPlugin<C extends Container, A extends Asset> ext
      */
     String createAsset(String siteId, String path, String name, byte[] data, String contentType) throws PluginOperationException;
 
+    /**
+     * Creates an asset for the site and folder reading data from a stream.
+     * Stream is consumed but not closed.
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data stream
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException;
+
+    /**
+     * Creates an asset for the site and folder reading data from a channel.
+     * Channel is consumed but not closed.
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data channel
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    String createAsset(String siteId, String path, String name, ReadableByteChannel data, String contentType) throws PluginOperationException;
+
     /**
      * Deletes an asset
      *
@@ -93,4 +126,46 @@ public interface AssetManagementPlugin<C extends Container, A extends Asset> ext
      * @return asset
      */
     A findAsset(String siteId, String path, String name) throws PluginOperationException;
+
+    /**
+     * Opens a stream on asset content. Caller must close it.
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     * @throws PluginOperationException if operation failure
+     */
+    InputStream findAssetContent(String siteId, String path, String name) throws PluginOperationException;
+
+    /**
+     * Opens a channel on asset content. Caller must close it.
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content channel
+     * @throws PluginOperationException if operation failure
+     */
+    ReadableByteChannel findAssetChannel(String siteId, String path, String name) throws PluginOperationException;
+
+    /**
+     * Transfers asset content to target channel
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @param target target channel, not closed
+     * @return number of transferred bytes
+     * @throws PluginOperationException if operation failure
+     */
+    long transferAsset(String siteId, String path, String name, WritableByteChannel target) throws PluginOperationException;
+
+    /**
+     * Applies a batch of folder and asset mutations in order with a single commit on the backend
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    void applyBatch(List<AssetOperation> operations) throws PluginOperationException;
 }
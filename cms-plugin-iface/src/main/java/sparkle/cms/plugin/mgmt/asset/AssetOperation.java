@@ -0,0 +1,112 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * AssetOperation
+ * A single mutation of a batch applied by {@link AssetManagementPlugin#applyBatch(java.util.List)}
+ */
+public class AssetOperation {
+    private final AssetOperationType type;
+    private final String siteId;
+    private final String path;
+    private final String name;
+    private final InputStream data;
+    private final String contentType;
+
+    private AssetOperation(AssetOperationType type, String siteId, String path, String name, InputStream data, String contentType) {
+        this.type = type;
+        this.siteId = siteId;
+        this.path = path;
+        this.name = name;
+        this.data = data;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Folder creation
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @return operation
+     */
+    public static AssetOperation createFolder(String siteId, String path) {
+        return new AssetOperation(AssetOperationType.CREATE_FOLDER, siteId, path, null, null, null);
+    }
+
+    /**
+     * Folder deletion
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @return operation
+     */
+    public static AssetOperation deleteFolder(String siteId, String path) {
+        return new AssetOperation(AssetOperationType.DELETE_FOLDER, siteId, path, null, null, null);
+    }
+
+    /**
+     * Asset creation, stream is consumed but not closed when batch is applied
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data stream
+     * @param contentType content type
+     * @return operation
+     */
+    public static AssetOperation createAsset(String siteId, String path, String name, InputStream data, String contentType) {
+        return new AssetOperation(AssetOperationType.CREATE_ASSET, siteId, path, name, data, contentType);
+    }
+
+    /**
+     * Asset creation
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data
+     * @param contentType content type
+     * @return operation
+     */
+    public static AssetOperation createAsset(String siteId, String path, String name, byte[] data, String contentType) {
+        return createAsset(siteId, path, name, new ByteArrayInputStream(data), contentType);
+    }
+
+    /**
+     * Asset deletion
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return operation
+     */
+    public static AssetOperation deleteAsset(String siteId, String path, String name) {
+        return new AssetOperation(AssetOperationType.DELETE_ASSET, siteId, path, name, null, null);
+    }
+
+    public AssetOperationType getType() {
+        return type;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InputStream getData() {
+        return data;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,8 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+/**
+ * AssetOperationType
+ */
+public enum AssetOperationType {
+    CREATE_FOLDER, DELETE_FOLDER, CREATE_ASSET, DELETE_ASSET
+}
@@ -3,12 +3,40 @@ package sparkle.cms.plugin.mgmt.asset;
 import sparkle.cms.domain.AssetType;
 
 import javax.activation.MimetypesFileTypeMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * AssetUtils
  * Created by bazzoni on 23/05/2015.
  */
 public class AssetUtils {
+    private static final MimetypesFileTypeMap MIME_TYPES = new MimetypesFileTypeMap();
+    private static final Map<String, AssetType> ASSET_TYPES = createAssetTypes();
+    private static final ConcurrentMap<String, String> CONTENT_TYPES_BY_EXTENSION = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, AssetType> ASSET_TYPES_BY_EXTENSION = new ConcurrentHashMap<>();
+
+    private static Map<String, AssetType> createAssetTypes() {
+        Map<String, AssetType> assetTypes = new HashMap<>();
+        assetTypes.put("application/pdf", AssetType.PDF);
+        assetTypes.put("application/mp4", AssetType.VIDEO);
+        assetTypes.put("application/msword", AssetType.DOCUMENT);
+        assetTypes.put("application/vnd.openxmlformats-officedocument.wordprocessingml.document", AssetType.DOCUMENT);
+        assetTypes.put("application/vnd.oasis.opendocument.text", AssetType.DOCUMENT);
+        assetTypes.put("application/vnd.ms-excel", AssetType.SPREADSHEET);
+        assetTypes.put("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", AssetType.SPREADSHEET);
+        assetTypes.put("application/vnd.oasis.opendocument.spreadsheet", AssetType.SPREADSHEET);
+        assetTypes.put("application/vnd.ms-powerpoint", AssetType.PRESENTATION);
+        assetTypes.put("application/vnd.openxmlformats-officedocument.presentationml.presentation", AssetType.PRESENTATION);
+        assetTypes.put("application/vnd.oasis.opendocument.presentation", AssetType.PRESENTATION);
+        assetTypes.put("application/zip", AssetType.ZIP);
+        assetTypes.put("application/gzip", AssetType.ZIP);
+        assetTypes.put("text/plain", AssetType.TEXT);
+        return Collections.unmodifiableMap(assetTypes);
+    }
 
     /**
      * Determine asset type according to mime content type
@@ -17,51 +45,47 @@ public class AssetUtils {
      * @return @AssetType
      */
     public static AssetType findAssetTypeByContentType(String contentType) {
-        AssetType assetType = AssetType.BINARY;
-        if (contentType.equals("application/pdf")) {
-            assetType = AssetType.PDF;
-        } else if (contentType.startsWith("image")) {
+        AssetType assetType = ASSET_TYPES.get(contentType);
+        if (assetType != null) {
+            return assetType;
+        }
+        if (contentType.startsWith("image")) {
             assetType = AssetType.IMAGE;
         } else if (contentType.startsWith("audio")) {
             assetType = AssetType.AUDIO;
-        } else if (contentType.startsWith("video") || contentType.equals("application/mp4")) {
+        } else if (contentType.startsWith("video")) {
             assetType = AssetType.VIDEO;
-        } else if (contentType.equals("application/msword") || contentType.equals("application/vnd.openxmlformats-officedocument.wordprocessingml.document") ||
-                contentType.equals("application/vnd.oasis.opendocument.text")) {
-            assetType = AssetType.DOCUMENT;
-        } else if (contentType.equals("application/vnd.ms-excel") || contentType.equals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet") ||
-                contentType.equals("application/vnd.oasis.opendocument.spreadsheet")) {
-            assetType = AssetType.SPREADSHEET;
-        } else if (contentType.equals("application/vnd.ms-powerpoint") || contentType.equals("application/vnd.openxmlformats-officedocument.presentationml.presentation") ||
-                contentType.equals("application/vnd.oasis.opendocument.presentation")) {
-            assetType = AssetType.PRESENTATION;
-        } else if (contentType.equals("application/zip") || contentType.equals("application/gzip") || contentType.startsWith("application/x")) {
+        } else if (contentType.startsWith("application/x")) {
             assetType = AssetType.ZIP;
-        } else if (contentType.equals("text/plain")) {
-            assetType = AssetType.TEXT;
+        } else {
+            assetType = AssetType.BINARY;
         }
         return assetType;
     }
 
     /**
-     * Find mime content type acc0rding to file name
+     * Find mime content type according to file name, resolved once per extension
      *
      * @param name file name
      * @return mime content type
      */
     public static String findContentTypeByFileName(String name) {
-        MimetypesFileTypeMap mimeTypesMap = new MimetypesFileTypeMap();
         // only by file name
-        return mimeTypesMap.getContentType(name);
+        return CONTENT_TYPES_BY_EXTENSION.computeIfAbsent(getExtension(name), extension -> MIME_TYPES.getContentType(name));
     }
 
     /**
-     * Find asset type according to file name
+     * Find asset type according to file name, resolved once per extension
      *
      * @param name file name
      * @return @AssetType
      */
     public static AssetType findAssetTypeByFileName(String name) {
-        return findAssetTypeByContentType(findContentTypeByFileName(name));
+        return ASSET_TYPES_BY_EXTENSION.computeIfAbsent(getExtension(name), extension -> findAssetTypeByContentType(findContentTypeByFileName(name)));
+    }
+
+    private static String getExtension(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
     }
 }
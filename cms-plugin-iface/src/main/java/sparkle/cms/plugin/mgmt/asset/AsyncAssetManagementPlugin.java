@@ -0,0 +1,301 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * AsyncAssetManagementPlugin
+ * Non blocking facade of an asset management plugin. Operations run on the given executor,
+ * cancelling a returned future or reaching the timeout interrupts the running operation.
+ * The timeout counts from when an operation starts running, not while it waits in the queue;
+ * streams and channels produced after the future was cancelled or timed out are closed.
+ * Failures complete futures exceptionally with the original PluginOperationException.
+ *
+ * @param <C> container type
+ * @param <A> asset type
+ */
+public class AsyncAssetManagementPlugin<C extends Container, A extends Asset> {
+    private final AssetManagementPlugin<C, A> plugin;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final long timeout;
+
+    /**
+     * Creates facade
+     *
+     * @param plugin   wrapped plugin
+     * @param executor executor running operations, owned by the facade
+     * @param timeout  operation timeout in milliseconds, 0 disables it
+     */
+    public AsyncAssetManagementPlugin(AssetManagementPlugin<C, A> plugin, ExecutorService executor, long timeout) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.timeout = timeout;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "asset-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get wrapped plugin
+     *
+     * @return plugin
+     */
+    public AssetManagementPlugin<C, A> getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#createSiteRepository(String)}
+     *
+     * @param siteId site id
+     * @return operation future
+     */
+    public CompletableFuture<String> createSiteRepository(String siteId) {
+        return submit(() -> plugin.createSiteRepository(siteId));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#deleteSiteRepository(String)}
+     *
+     * @param siteId site id
+     * @return operation future
+     */
+    public CompletableFuture<Void> deleteSiteRepository(String siteId) {
+        return submit(() -> {
+            plugin.deleteSiteRepository(siteId);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#createFolder(String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @return operation future
+     */
+    public CompletableFuture<String> createFolder(String siteId, String path) {
+        return submit(() -> plugin.createFolder(siteId, path));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#deleteFolder(String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @return operation future
+     */
+    public CompletableFuture<Void> deleteFolder(String siteId, String path) {
+        return submit(() -> {
+            plugin.deleteFolder(siteId, path);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#createAsset(String, String, String, byte[], String)}
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data
+     * @param contentType content type
+     * @return operation future
+     */
+    public CompletableFuture<String> createAsset(String siteId, String path, String name, byte[] data, String contentType) {
+        return submit(() -> plugin.createAsset(siteId, path, name, data, contentType));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#createAsset(String, String, String, InputStream, String)}
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data
+     * @param contentType content type
+     * @return operation future
+     */
+    public CompletableFuture<String> createAsset(String siteId, String path, String name, InputStream data, String contentType) {
+        return submit(() -> plugin.createAsset(siteId, path, name, data, contentType));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#createAsset(String, String, String, ReadableByteChannel, String)}
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset name
+     * @param data        asset data
+     * @param contentType content type
+     * @return operation future
+     */
+    public CompletableFuture<String> createAsset(String siteId, String path, String name, ReadableByteChannel data, String contentType) {
+        return submit(() -> plugin.createAsset(siteId, path, name, data, contentType));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#deleteAsset(String, String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return operation future
+     */
+    public CompletableFuture<Void> deleteAsset(String siteId, String path, String name) {
+        return submit(() -> {
+            plugin.deleteAsset(siteId, path, name);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#findSiteRepository(String)}
+     *
+     * @param siteId site id
+     * @return operation future
+     */
+    public CompletableFuture<C> findSiteRepository(String siteId) {
+        return submit(() -> plugin.findSiteRepository(siteId));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#findFolder(String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @return operation future
+     */
+    public CompletableFuture<C> findFolder(String siteId, String path) {
+        return submit(() -> plugin.findFolder(siteId, path));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#findAsset(String, String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return operation future
+     */
+    public CompletableFuture<A> findAsset(String siteId, String path, String name) {
+        return submit(() -> plugin.findAsset(siteId, path, name));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#findAssetContent(String, String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return operation future
+     */
+    public CompletableFuture<InputStream> findAssetContent(String siteId, String path, String name) {
+        return submit(() -> plugin.findAssetContent(siteId, path, name));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#findAssetChannel(String, String, String)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @return operation future
+     */
+    public CompletableFuture<ReadableByteChannel> findAssetChannel(String siteId, String path, String name) {
+        return submit(() -> plugin.findAssetChannel(siteId, path, name));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#transferAsset(String, String, String, WritableByteChannel)}
+     *
+     * @param siteId site id
+     * @param path   internal path
+     * @param name   asset name
+     * @param target target channel, not closed
+     * @return operation future
+     */
+    public CompletableFuture<Long> transferAsset(String siteId, String path, String name, WritableByteChannel target) {
+        return submit(() -> plugin.transferAsset(siteId, path, name, target));
+    }
+
+    /**
+     * Asynchronous {@link AssetManagementPlugin#applyBatch(List)}
+     *
+     * @param operations mutations
+     * @return operation future
+     */
+    public CompletableFuture<Void> applyBatch(List<AssetOperation> operations) {
+        return submit(() -> {
+            plugin.applyBatch(operations);
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting operations and interrupts running ones
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                // cancelled while queued
+                return;
+            }
+            final ScheduledFuture<?> timer = timeout > 0 ? scheduler.schedule(() -> result.completeExceptionally(
+                    new TimeoutException(String.format("Asset operation timed out after %d ms", timeout))), timeout, TimeUnit.MILLISECONDS) : null;
+            try {
+                final T value = operation.call();
+                if (!result.complete(value)) {
+                    closeQuietly(value);
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled() || e instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Closes a result nobody will receive anymore, such as a stream opened after timeout
+     *
+     * @param value operation result
+     */
+    private void closeQuietly(Object value) {
+        if (value instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) value).close();
+            } catch (Exception e) {
+                //ignore, result was abandoned
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import sparkle.cms.data.CmsAssetRepository;
+import sparkle.cms.domain.CmsAsset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * CmsAssetSink
+ * Buffers catalog entries fed by backends while loading a site and saves them in batches.
+ * Entries whose uri is already catalogued are skipped when unchanged and saved over the catalogued
+ * entry otherwise, uris never fed remain available as stale.
+ * Not thread safe, one sink per site.
+ */
+public class CmsAssetSink implements AutoCloseable {
+    private final CmsAssetRepository cmsAssetRepository;
+    private final int batchSize;
+    private final boolean compareDates;
+    private final Map<String, CmsAsset> catalogued;
+    private final List<CmsAsset> buffer;
+    private long saved;
+
+    /**
+     * Creates a sink
+     *
+     * @param cmsAssetRepository catalog repository
+     * @param batchSize          entries per save
+     * @param compareDates       true if fed dates are modification dates, false if they are load times
+     * @param catalogued         entries already catalogued for the site by uri, owned and consumed by the sink
+     */
+    public CmsAssetSink(CmsAssetRepository cmsAssetRepository, int batchSize, boolean compareDates, Map<String, CmsAsset> catalogued) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.cmsAssetRepository = cmsAssetRepository;
+        this.batchSize = batchSize;
+        this.compareDates = compareDates;
+        this.catalogued = catalogued;
+        // grows to batch size on demand, large batch sizes must not be allocated up front
+        this.buffer = new ArrayList<>();
+    }
+
+    /**
+     * Feeds a catalog entry, buffer is flushed when batch size is reached
+     *
+     * @param cmsAsset catalog entry
+     */
+    public void accept(CmsAsset cmsAsset) {
+        final CmsAsset existing = catalogued.remove(cmsAsset.getUri());
+        if (existing != null) {
+            if (!isChanged(existing, cmsAsset)) {
+                return;
+            }
+            cmsAsset.setId(existing.getId());
+        }
+        buffer.add(cmsAsset);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves buffered entries with a single repository call
+     */
+    public void flush() {
+        if (!buffer.isEmpty()) {
+            cmsAssetRepository.save(new ArrayList<>(buffer));
+            saved += buffer.size();
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Get uris catalogued before loading and not fed since
+     *
+     * @return stale uris
+     */
+    public Set<String> getStaleUris() {
+        return catalogued.keySet();
+    }
+
+    /**
+     * Get number of new or changed entries saved so far
+     *
+     * @return saved entries
+     */
+    public long getSaved() {
+        return saved;
+    }
+
+    /**
+     * Flushes remaining entries
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private boolean isChanged(CmsAsset existing, CmsAsset cmsAsset) {
+        return !Objects.equals(existing.getName(), cmsAsset.getName())
+                || !Objects.equals(existing.getType(), cmsAsset.getType())
+                || compareDates && !Objects.equals(existing.getDate(), cmsAsset.getDate());
+    }
+}
@@ -0,0 +1,43 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ReleasingInputStream
+ * Stream holding a backend resource, such as a repository session, until it is closed.
+ * The resource is released once, after the underlying stream is closed, even if closing fails.
+ */
+public class ReleasingInputStream extends FilterInputStream {
+    private final Runnable release;
+    private boolean released;
+
+    /**
+     * Creates a stream
+     *
+     * @param in      underlying stream
+     * @param release releases the held resource
+     */
+    public ReleasingInputStream(InputStream in, Runnable release) {
+        super(in);
+        this.release = release;
+    }
+
+    /**
+     * Closes underlying stream and releases the held resource
+     *
+     * @throws IOException if underlying stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!released) {
+                released = true;
+                release.run();
+            }
+        }
+    }
+}
@@ -4,6 +4,10 @@ import sparkle.cms.plugin.mgmt.PluginImpl;
 import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginType;
 
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
 /**
  * AbstractSearchPlugin
  * Created by bazzoni on 30/05/2015.
@@ -13,6 +17,41 @@ public abstract class AbstractSearchPlugin<T extends SparkleDocument> extends Pl
         super(PluginType.SEARCH);
     }
 
+    /**
+     * Add documents to index one by one
+     *
+     * @param documents documents, site id taken from each document
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long addAllToIndex(Stream<? extends SparkleDocument> documents) throws PluginOperationException {
+        return indexEach(documents, null, null);
+    }
+
+    /**
+     * Delete all indexed documents of a site, then add site documents to index one by one
+     *
+     * @param siteId    site id
+     * @param documents site documents
+     * @param progress  receives number of documents indexed so far
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long reindexSite(String siteId, Stream<? extends SparkleDocument> documents, LongConsumer progress) throws PluginOperationException {
+        deleteSiteFromIndex(siteId);
+        return indexEach(documents, siteId, progress);
+    }
+
+    /**
+     * Delete all indexed documents of a site
+     *
+     * @param siteId site id
+     * @throws PluginOperationException if error
+     */
+    protected abstract void deleteSiteFromIndex(String siteId) throws PluginOperationException;
+
     /**
      * Executes plugin default start up tasks
      *
@@ -32,4 +71,19 @@ public abstract class AbstractSearchPlugin<T extends SparkleDocument> extends Pl
     public void doExecuteShutdownTasks() throws PluginOperationException {
         //do nothing
     }
+
+    private long indexEach(Stream<? extends SparkleDocument> documents, String siteId, LongConsumer progress) {
+        long indexed = 0;
+        final Iterator<? extends SparkleDocument> iterator = documents.iterator();
+        while (iterator.hasNext()) {
+            final SparkleDocument document = iterator.next();
+            addToIndex(document.getId(), siteId == null ? document.getSiteId() : siteId, document.getName(), document.getUri(),
+                    document.getDate(), document.getSummary(), document.getContent());
+            indexed++;
+            if (progress != null) {
+                progress.accept(indexed);
+            }
+        }
+        return indexed;
+    }
 }
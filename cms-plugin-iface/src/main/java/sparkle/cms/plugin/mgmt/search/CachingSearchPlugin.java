@@ -0,0 +1,359 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import sparkle.cms.domain.CmsSetting;
+import sparkle.cms.plugin.mgmt.PluginOperationException;
+import sparkle.cms.plugin.mgmt.PluginStatus;
+import sparkle.cms.plugin.mgmt.PluginType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * CachingSearchPlugin
+ * Search plugin decorator caching results by site and analyzed term in a bounded LRU map.
+ * Index operations invalidate cached results of the touched site, so they must go through the decorator.
+ * Since backends may make changes visible with a delay, results of an invalidated site are not cached
+ * again until the settle time elapses. Backend specific searches, reached through {@link #getDelegate()},
+ * are not cached.
+ *
+ * @param <T> document type
+ */
+public class CachingSearchPlugin<T extends SparkleDocument> implements SearchPlugin<T> {
+    private static final Generation INITIAL = new Generation(0);
+
+    private final SearchPlugin<T> delegate;
+    private final long ttl;
+    private final long settleTime;
+    private final Map<String, CachedResult> results;
+    private final Map<String, String> siteIds;
+    private final ConcurrentMap<String, Generation> sites = new ConcurrentHashMap<>();
+    private final AtomicReference<Generation> all = new AtomicReference<>(INITIAL);
+
+    /**
+     * Creates a caching decorator
+     *
+     * @param delegate   cached plugin
+     * @param maxEntries maximum cached results, least recently used are evicted
+     * @param ttl        result time to live in milliseconds
+     * @param settleTime delay before changes become visible in the delegate in milliseconds
+     */
+    public CachingSearchPlugin(SearchPlugin<T> delegate, int maxEntries, long ttl, long settleTime) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.settleTime = settleTime;
+        this.results = createLruMap(maxEntries);
+        this.siteIds = createLruMap(maxEntries * 10);
+    }
+
+    /**
+     * Get cached plugin
+     *
+     * @return plugin
+     */
+    public SearchPlugin<T> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Update a content in index and invalidate its site
+     *
+     * @param id      document id
+     * @param siteId  document siteId
+     * @param name    document name
+     * @param uri     document uri
+     * @param date    document date
+     * @param summary document summary
+     * @param content document content
+     */
+    @Override
+    public void addToIndex(String id, String siteId, String name, String uri, Long date, String summary, String content) {
+        rememberSite(id, siteId);
+        try {
+            delegate.addToIndex(id, siteId, name, uri, date, summary, content);
+        } finally {
+            invalidate(siteId);
+        }
+    }
+
+    /**
+     * Add documents to index in bulk and invalidate all sites
+     *
+     * @param documents documents, site id taken from each document
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long addAllToIndex(Stream<? extends SparkleDocument> documents) throws PluginOperationException {
+        try {
+            return delegate.addAllToIndex(documents);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Replace all indexed documents of a site and invalidate it
+     *
+     * @param siteId    site id
+     * @param documents site documents
+     * @param progress  receives number of documents indexed so far
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long reindexSite(String siteId, Stream<? extends SparkleDocument> documents, LongConsumer progress) throws PluginOperationException {
+        try {
+            return delegate.reindexSite(siteId, documents, progress);
+        } finally {
+            invalidate(siteId);
+        }
+    }
+
+    /**
+     * Delete an indexed document and invalidate its site, or all sites if the document site is unknown
+     *
+     * @param id document id
+     */
+    @Override
+    public void deleteFromIndex(String id) {
+        final String siteId;
+        synchronized (siteIds) {
+            siteId = siteIds.remove(id);
+        }
+        try {
+            delegate.deleteFromIndex(id);
+        } finally {
+            if (siteId == null) {
+                invalidateAll();
+            } else {
+                invalidate(siteId);
+            }
+        }
+    }
+
+    /**
+     * Search index for specified term, cached
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @return found documents, unmodifiable
+     */
+    @Override
+    public List<T> search(String siteId, String searchTerm) {
+        return cached(key(siteId, searchTerm, null), siteId, () -> {
+            final List<T> documents = delegate.search(siteId, searchTerm);
+            documents.forEach(document -> rememberSite(document.getId(), siteId));
+            return Collections.unmodifiableList(documents);
+        });
+    }
+
+    /**
+     * Search index for specified term fetching only the requested page, cached
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return page of found documents with total count
+     */
+    @Override
+    public Page<T> search(String siteId, String searchTerm, Pageable pageable) {
+        return cached(key(siteId, searchTerm, pageable), siteId, () -> delegate.search(siteId, searchTerm, pageable));
+    }
+
+    /**
+     * Search index for specified term without counting all matches, cached apart from pages
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return slice of found documents
+     */
+    @Override
+    public Slice<T> searchSlice(String siteId, String searchTerm, Pageable pageable) {
+        return cached(key(siteId, searchTerm, pageable) + "\nslice", siteId, () -> delegate.searchSlice(siteId, searchTerm, pageable));
+    }
+
+    /**
+     * Update a content in index and invalidate its current and previous site
+     *
+     * @param id      document id
+     * @param siteId  document siteId
+     * @param name    document name
+     * @param uri     document uri
+     * @param date    document date
+     * @param summary document summary
+     * @param content document content
+     */
+    @Override
+    public void update(String id, String siteId, String name, String uri, Long date, String summary, String content) {
+        final String previousSiteId;
+        synchronized (siteIds) {
+            previousSiteId = siteIds.put(id, siteId);
+        }
+        try {
+            delegate.update(id, siteId, name, uri, date, summary, content);
+        } finally {
+            invalidate(siteId);
+            if (previousSiteId != null && !previousSiteId.equals(siteId)) {
+                invalidate(previousSiteId);
+            }
+        }
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public PluginType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public PluginStatus getStatus() {
+        return delegate.getStatus();
+    }
+
+    @Override
+    public String getVERSION() {
+        return delegate.getVERSION();
+    }
+
+    @Override
+    public List<CmsSetting> getSettings() {
+        return delegate.getSettings();
+    }
+
+    @Override
+    public void setFilter(String filter) {
+        delegate.setFilter(filter);
+    }
+
+    @Override
+    public void invalidateSettings() {
+        delegate.invalidateSettings();
+    }
+
+    @Override
+    public void invalidateSetting(String key) {
+        delegate.invalidateSetting(key);
+    }
+
+    @Override
+    public void doActivate() throws PluginOperationException {
+        delegate.doActivate();
+        invalidateAll();
+    }
+
+    @Override
+    public void doDeactivate() throws PluginOperationException {
+        delegate.doDeactivate();
+        invalidateAll();
+    }
+
+    @Override
+    public void doExecuteStartupTasks() throws PluginOperationException {
+        delegate.doExecuteStartupTasks();
+    }
+
+    @Override
+    public void doExecuteShutdownTasks() throws PluginOperationException {
+        delegate.doExecuteShutdownTasks();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(String key, String siteId, Supplier<R> search) {
+        final Generation site = sites.getOrDefault(siteId, INITIAL);
+        final Generation global = all.get();
+        final long now = System.currentTimeMillis();
+        CachedResult cached;
+        synchronized (results) {
+            cached = results.get(key);
+        }
+        if (cached != null && cached.site == site && cached.global == global && cached.expiration > now) {
+            return (R) cached.value;
+        }
+
+        final R value = search.get();
+        if (site.settled <= now && global.settled <= now) {
+            synchronized (results) {
+                results.put(key, new CachedResult(value, site, global, now + ttl));
+            }
+        }
+        return value;
+    }
+
+    private String key(String siteId, String searchTerm, Pageable pageable) {
+        final String key = siteId + '\n' + String.join(" ", QueryAnalyzer.analyze(searchTerm));
+        return pageable == null ? key : key + '\n' + pageable.getOffset() + '\n' + pageable.getPageSize() + '\n' + pageable.getSort();
+    }
+
+    private void rememberSite(String id, String siteId) {
+        synchronized (siteIds) {
+            siteIds.put(id, siteId);
+        }
+    }
+
+    private void invalidate(String siteId) {
+        final Generation next = new Generation(System.currentTimeMillis() + settleTime);
+        sites.put(siteId, next);
+    }
+
+    private void invalidateAll() {
+        all.set(new Generation(System.currentTimeMillis() + settleTime));
+    }
+
+    private static <K, V> Map<K, V> createLruMap(int maxEntries) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Invalidation mark, results are valid only for the marks they were computed under
+     */
+    private static class Generation {
+        private final long settled;
+
+        private Generation(long settled) {
+            this.settled = settled;
+        }
+    }
+
+    private static class CachedResult {
+        private final Object value;
+        private final Generation site;
+        private final Generation global;
+        private final long expiration;
+
+        private CachedResult(Object value, Generation site, Generation global, long expiration) {
+            this.value = value;
+            this.site = site;
+            this.global = global;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IndexingQueue
+ * Collects index operations and hands them to a writer in batches, either when the batch size is reached
+ * or when the flush interval elapses. Operations on the same id are merged, only the latest one is written.
+ * Callers never wait on the index, failed batches are queued again unless superseded meanwhile.
+ *
+ * @param <T> document type
+ */
+public class IndexingQueue<T extends SparkleDocument> implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final IndexWriter<T> writer;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private Map<String, T> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    /**
+     * Writes a batch of merged operations to the index
+     *
+     * @param <T> document type
+     */
+    public interface IndexWriter<T> {
+        /**
+         * Writes documents and deletions
+         *
+         * @param documents  documents to add or replace
+         * @param deletedIds ids of documents to delete
+         * @throws Exception if batch cannot be written
+         */
+        void write(List<T> documents, List<String> deletedIds) throws Exception;
+    }
+
+    /**
+     * Creates a queue and starts its flush timer
+     *
+     * @param writer        batch writer
+     * @param batchSize     pending operations triggering a flush
+     * @param flushInterval maximum delay of an operation in milliseconds
+     */
+    public IndexingQueue(IndexWriter<T> writer, int batchSize, long flushInterval) {
+        if (batchSize < 1 || flushInterval < 1) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive");
+        }
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a document, replacing any pending operation with the same id
+     *
+     * @param document document
+     */
+    public void add(T document) {
+        enqueue(document.getId(), document);
+    }
+
+    /**
+     * Queues a deletion, replacing any pending operation with the same id
+     *
+     * @param id document id
+     */
+    public void delete(String id) {
+        enqueue(id, null);
+    }
+
+    /**
+     * Get number of pending operations
+     *
+     * @return pending operations
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes pending operations on the calling thread
+     *
+     * @throws Exception if batch cannot be written, operations are queued again
+     */
+    public void flush() throws Exception {
+        synchronized (flushLock) {
+            final Map<String, T> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            final List<T> documents = new ArrayList<>();
+            final List<String> deletedIds = new ArrayList<>();
+            batch.forEach((id, document) -> {
+                if (document == null) {
+                    deletedIds.add(id);
+                } else {
+                    documents.add(document);
+                }
+            });
+            try {
+                writer.write(documents, deletedIds);
+            } catch (Exception e) {
+                synchronized (this) {
+                    batch.putAll(pending);
+                    pending = batch;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stops the flush timer and writes pending operations
+     *
+     * @throws Exception if remaining batch cannot be written
+     */
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            closed = true;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+    }
+
+    private synchronized void enqueue(String id, T document) {
+        if (closed) {
+            throw new IllegalStateException("Indexing queue closed");
+        }
+        pending.remove(id);
+        pending.put(id, document);
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Cannot write index batch, retrying at next flush", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * QueryAnalyzer
+ * Shared analysis of search terms and indexed texts: diacritics and case are folded, text is split on
+ * anything that is not a letter or digit and, for queries, stop words are dropped.
+ */
+public class QueryAnalyzer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    // letters and digits of any script, marks left by decomposition stay within words
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{M}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "that", "the", "to", "was", "with",
+            "il", "lo", "la", "i", "gli", "le", "un", "una", "di", "da", "del", "della", "e", "per", "con", "su")));
+
+    private QueryAnalyzer() {
+    }
+
+    /**
+     * Fold diacritics and case, ASCII text skips Unicode normalization
+     *
+     * @param text text
+     * @return folded text
+     */
+    public static String fold(String text) {
+        boolean ascii = true;
+        for (int i = 0; i < text.length() && ascii; i++) {
+            ascii = text.charAt(i) < 0x80;
+        }
+        if (!ascii) {
+            text = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split texts into folded tokens, stop words are kept
+     *
+     * @param texts texts, null ones are skipped
+     * @return distinct tokens in order of appearance
+     */
+    public static Set<String> tokenize(String... texts) {
+        final Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                for (String token : SEPARATORS.split(fold(text))) {
+                    if (!token.isEmpty()) {
+                        tokens.add(token);
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Analyze a search term, stop words are dropped unless the term has nothing else
+     *
+     * @param searchTerm search term
+     * @return distinct query tokens, empty if term has no letters nor digits
+     */
+    public static List<String> analyze(String searchTerm) {
+        final Set<String> tokens = tokenize(searchTerm);
+        final List<String> words = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            if (!STOP_WORDS.contains(token)) {
+                words.add(token);
+            }
+        }
+        return words.isEmpty() ? new ArrayList<>(tokens) : words;
+    }
+}
@@ -1,8 +1,14 @@
 package sparkle.cms.plugin.mgmt.search;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import sparkle.cms.plugin.mgmt.Plugin;
+import sparkle.cms.plugin.mgmt.PluginOperationException;
 
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * SearchPlugin
@@ -22,6 +28,26 @@ public interface SearchPlugin<T extends SparkleDocument> extends Plugin {
      */
     void addToIndex(String id, String siteId, String name, String uri, Long date, String summary, String content);
 
+    /**
+     * Add documents to index in bulk, documents are pulled from the stream as they are indexed
+     *
+     * @param documents documents, site id taken from each document
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    long addAllToIndex(Stream<? extends SparkleDocument> documents) throws PluginOperationException;
+
+    /**
+     * Replace all indexed documents of a site
+     *
+     * @param siteId    site id
+     * @param documents site documents
+     * @param progress  receives number of documents indexed so far, may be called from indexing threads
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    long reindexSite(String siteId, Stream<? extends SparkleDocument> documents, LongConsumer progress) throws PluginOperationException;
+
     /**
      * Delete an indexed document from Solr index
      *
@@ -39,6 +65,26 @@ public interface SearchPlugin<T extends SparkleDocument> extends Plugin {
      */
     List<T> search(String siteId, String searchTerm);
 
+    /**
+     * Search index for specified term, fetching only the requested page
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return page of found documents with total count
+     */
+    Page<T> search(String siteId, String searchTerm, Pageable pageable);
+
+    /**
+     * Search index for specified term, fetching only the requested page without counting all matches
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return slice of found documents
+     */
+    Slice<T> searchSlice(String siteId, String searchTerm, Pageable pageable);
+
     /**
      * Update a content in index
      *
@@ -12,6 +12,13 @@ public interface SparkleDocument {
      */
     String getId();
 
+    /**
+     * Get Document site id
+     *
+     * @return site id
+     */
+    String getSiteId();
+
     /**
      * Get Document name
      *
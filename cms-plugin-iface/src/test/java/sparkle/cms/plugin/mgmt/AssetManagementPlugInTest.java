@@ -19,8 +19,11 @@ import sparkle.cms.domain.CmsSetting;
 import sparkle.cms.domain.SettingType;
 import sparkle.cms.plugin.mgmt.asset.*;
 
+import java.io.ByteArrayInputStream;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -61,6 +64,7 @@ public class AssetManagementPlugInTest extends AbstractMongoConfiguration {
     public void setUp() throws Exception {
         cmsSettingRepository.deleteAll();
         cmsSettingRepository.save(new CmsSetting("dummy.activate", true, SettingType.BOOL));
+        plugin.invalidateSettings();
         plugin.doActivate();
         repository = ((DummyAssetManagementPlugin) plugin).getRepository();
     }
@@ -75,6 +79,31 @@ public class AssetManagementPlugInTest extends AbstractMongoConfiguration {
         assertEquals(PluginStatus.ACTIVE, plugin.getStatus());
     }
 
+    @Test
+    public void testInvalidateSettings() throws Exception {
+        cmsSettingRepository.deleteAll();
+        cmsSettingRepository.save(new CmsSetting("dummy.activate", false, SettingType.BOOL));
+        plugin.doActivate();
+        assertEquals(PluginStatus.ACTIVE, plugin.getStatus());
+
+        plugin.invalidateSettings();
+        plugin.doActivate();
+        assertEquals(PluginStatus.INSTALLED, plugin.getStatus());
+    }
+
+    @Test
+    public void testInvalidateSetting() throws Exception {
+        cmsSettingRepository.deleteAll();
+        cmsSettingRepository.save(new CmsSetting("dummy.activate", false, SettingType.BOOL));
+        plugin.invalidateSetting("dummy.other");
+        plugin.doActivate();
+        assertEquals(PluginStatus.ACTIVE, plugin.getStatus());
+
+        plugin.invalidateSetting("dummy.activate");
+        plugin.doActivate();
+        assertEquals(PluginStatus.INSTALLED, plugin.getStatus());
+    }
+
     @Test
     public void testCreateSiteRepository() throws Exception {
         String siteId = plugin.createSiteRepository(UUID.randomUUID().toString());
@@ -130,6 +159,48 @@ public class AssetManagementPlugInTest extends AbstractMongoConfiguration {
         assertEquals("data", new String(asset.getContent()));
     }
 
+    @Test
+    public void testCreateAssetFromStream() throws Exception {
+        String siteId = plugin.createSiteRepository(UUID.randomUUID().toString());
+        String path = plugin.createFolder(siteId, "folder");
+        String filename = plugin.createAsset(siteId, path, "filename", new ByteArrayInputStream("data".getBytes()), "text/plain");
+
+        Asset asset = plugin.findAsset(siteId, path, filename);
+        assertNotNull(asset);
+        assertEquals("data", new String(asset.getContent()));
+    }
+
+    @Test
+    public void testApplyBatch() throws Exception {
+        String siteId = plugin.createSiteRepository(UUID.randomUUID().toString());
+        plugin.applyBatch(Arrays.asList(
+                AssetOperation.createFolder(siteId, "folder"),
+                AssetOperation.createAsset(siteId, "folder", "first", "first".getBytes(), "text/plain"),
+                AssetOperation.createAsset(siteId, "folder", "second", "second".getBytes(), "text/plain"),
+                AssetOperation.deleteAsset(siteId, "folder", "first")));
+
+        assertNull(plugin.findAsset(siteId, "folder", "first"));
+        assertEquals("second", new String(plugin.findAsset(siteId, "folder", "second").getContent()));
+    }
+
+    @Test
+    public void testAsyncCreateAsset() throws Exception {
+        @SuppressWarnings("unchecked")
+        AsyncAssetManagementPlugin<DummyContainer, DummyAsset> async = new AsyncAssetManagementPlugin<>(
+                (AssetManagementPlugin<DummyContainer, DummyAsset>) plugin, Executors.newFixedThreadPool(2), 5000);
+        try {
+            String siteId = async.createSiteRepository(UUID.randomUUID().toString()).get();
+            String filename = async.createFolder(siteId, "folder")
+                    .thenCompose(path -> async.createAsset(siteId, path, "filename", "data".getBytes(), "text/plain"))
+                    .get();
+
+            DummyAsset asset = async.findAsset(siteId, "folder", filename).get();
+            assertEquals("data", new String(asset.getContent()));
+        } finally {
+            async.shutdown();
+        }
+    }
+
     @Test
     public void testDeleteAsset() throws Exception {
         String siteId = plugin.createSiteRepository(UUID.randomUUID().toString());
@@ -0,0 +1,30 @@
+package sparkle.cms.plugin.mgmt.asset;
+
+import org.junit.Test;
+import sparkle.cms.domain.AssetType;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * AssetUtilsTest
+ */
+public class AssetUtilsTest {
+
+    @Test
+    public void testFindAssetTypeByContentType() throws Exception {
+        assertEquals(AssetType.PDF, AssetUtils.findAssetTypeByContentType("application/pdf"));
+        assertEquals(AssetType.IMAGE, AssetUtils.findAssetTypeByContentType("image/png"));
+        assertEquals(AssetType.VIDEO, AssetUtils.findAssetTypeByContentType("application/mp4"));
+        assertEquals(AssetType.SPREADSHEET, AssetUtils.findAssetTypeByContentType("application/vnd.ms-excel"));
+        assertEquals(AssetType.ZIP, AssetUtils.findAssetTypeByContentType("application/x-tar"));
+        assertEquals(AssetType.TEXT, AssetUtils.findAssetTypeByContentType("text/plain"));
+        assertEquals(AssetType.BINARY, AssetUtils.findAssetTypeByContentType("application/octet-stream"));
+    }
+
+    @Test
+    public void testFindAssetTypeByFileName() throws Exception {
+        assertEquals(AssetUtils.findAssetTypeByFileName("first.txt"), AssetUtils.findAssetTypeByFileName("second.txt"));
+        assertEquals(AssetUtils.findContentTypeByFileName("first.txt"), AssetUtils.findContentTypeByFileName("second.txt"));
+        assertEquals(AssetType.BINARY, AssetUtils.findAssetTypeByFileName("noextension"));
+    }
+}
@@ -1,5 +1,8 @@
 package sparkle.cms.plugin.mgmt.asset;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 /**
  * DummyAsset
  * Created by bazzoni on 07/05/2015.
@@ -23,6 +26,16 @@ public class DummyAsset implements Asset {
         return data;
     }
 
+    /**
+     * Opens a stream on content
+     *
+     * @return content stream
+     */
+    @Override
+    public InputStream getContentStream() {
+        return new ByteArrayInputStream(data);
+    }
+
     /**
      * Get Asset URI
      *
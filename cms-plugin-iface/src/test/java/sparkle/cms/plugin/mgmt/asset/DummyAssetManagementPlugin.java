@@ -8,6 +8,16 @@ import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 import sparkle.cms.plugin.mgmt.PluginType;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
 /**
  * DummyAssetManagementPlugin
  * Created by bazzoni on 06/05/2015.
@@ -115,6 +125,48 @@ public class DummyAssetManagementPlugin extends PluginImpl implements AssetManag
         return name;
     }
 
+    /**
+     * Creates an asset for the site and folder reading data from a stream
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset  name
+     * @param data        asset data stream
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public String createAsset(String siteId, String path, String name, InputStream data, String contentType) throws PluginOperationException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] b = new byte[1024];
+        int read;
+        try {
+            while ((read = data.read(b)) != -1) {
+                baos.write(b, 0, read);
+            }
+        } catch (IOException e) {
+            throw new PluginOperationException("Cannot read asset data", e);
+        }
+        return createAsset(siteId, path, name, baos.toByteArray(), contentType);
+    }
+
+    /**
+     * Creates an asset for the site and folder reading data from a channel
+     *
+     * @param siteId      site id
+     * @param path        internal path
+     * @param name        asset  name
+     * @param data        asset data channel
+     * @param contentType content type
+     * @return asset path
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public String createAsset(String siteId, String path, String name, ReadableByteChannel data, String contentType) throws PluginOperationException {
+        return createAsset(siteId, path, name, Channels.newInputStream(data), contentType);
+    }
+
     /**
      * Deletes an asset
      *
@@ -180,6 +232,81 @@ public class DummyAssetManagementPlugin extends PluginImpl implements AssetManag
         return (DummyAsset) folderRepo.get(name);
     }
 
+    /**
+     * Opens a stream on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content stream
+     */
+    @Override
+    public InputStream findAssetContent(String siteId, String path, String name) {
+        return new ByteArrayInputStream(findAsset(siteId, path, name).getContent());
+    }
+
+    /**
+     * Opens a channel on asset content
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @return asset content channel
+     */
+    @Override
+    public ReadableByteChannel findAssetChannel(String siteId, String path, String name) {
+        return Channels.newChannel(findAssetContent(siteId, path, name));
+    }
+
+    /**
+     * Transfers asset content to target channel
+     *
+     * @param siteId siteId
+     * @param path   internal path
+     * @param name   asset name
+     * @param target target channel
+     * @return number of transferred bytes
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public long transferAsset(String siteId, String path, String name, WritableByteChannel target) throws PluginOperationException {
+        ByteBuffer buffer = ByteBuffer.wrap(findAsset(siteId, path, name).getContent());
+        try {
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new PluginOperationException("Cannot transfer asset", e);
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Applies a batch of mutations in order
+     *
+     * @param operations mutations
+     * @throws PluginOperationException if operation failure
+     */
+    @Override
+    public void applyBatch(List<AssetOperation> operations) throws PluginOperationException {
+        for (AssetOperation operation : operations) {
+            switch (operation.getType()) {
+                case CREATE_FOLDER:
+                    createFolder(operation.getSiteId(), operation.getPath());
+                    break;
+                case DELETE_FOLDER:
+                    deleteFolder(operation.getSiteId(), operation.getPath());
+                    break;
+                case CREATE_ASSET:
+                    createAsset(operation.getSiteId(), operation.getPath(), operation.getName(), operation.getData(), operation.getContentType());
+                    break;
+                case DELETE_ASSET:
+                    deleteAsset(operation.getSiteId(), operation.getPath(), operation.getName());
+                    break;
+            }
+        }
+    }
+
     @Override
     protected void createSettings() {
     }
@@ -0,0 +1,63 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CachingSearchPluginTest
+ */
+public class CachingSearchPluginTest {
+    private DummySearchPlugin delegate;
+    private CachingSearchPlugin<DummySparkleDocument> plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = new DummySearchPlugin();
+        plugin = new CachingSearchPlugin<>(delegate, 2, 60000, 0);
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        delegate.addToIndex("1", "site", "Dark lord", null, 0L, null, null);
+
+        assertEquals(1, plugin.search("site", "lord").size());
+        assertEquals(1, plugin.search("site", "  LORD ").size());
+        assertEquals(1, delegate.getSearches());
+
+        plugin.searchSlice("site", "lord", new PageRequest(0, 10));
+        plugin.searchSlice("site", "lord", new PageRequest(0, 10));
+        assertEquals(2, delegate.getSearches());
+    }
+
+    @Test
+    public void testInvalidateSite() throws Exception {
+        plugin.addToIndex("1", "site", "Dark lord", null, 0L, null, null);
+        plugin.addToIndex("2", "other", "Lord of lords", null, 0L, null, null);
+        assertEquals(1, plugin.search("site", "lord").size());
+        assertEquals(1, plugin.search("other", "lord").size());
+
+        plugin.addToIndex("3", "site", "Lord", null, 0L, null, null);
+        assertEquals(2, plugin.search("site", "lord").size());
+        assertEquals(1, plugin.search("other", "lord").size());
+        assertEquals(3, delegate.getSearches());
+
+        plugin.deleteFromIndex("2");
+        assertEquals(0, plugin.search("other", "lord").size());
+        assertEquals(4, delegate.getSearches());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        plugin.search("site", "first");
+        plugin.search("site", "second");
+        plugin.search("site", "first");
+        plugin.search("site", "third");
+        plugin.search("site", "first");
+        assertEquals(3, delegate.getSearches());
+        plugin.search("site", "second");
+        assertEquals(4, delegate.getSearches());
+    }
+}
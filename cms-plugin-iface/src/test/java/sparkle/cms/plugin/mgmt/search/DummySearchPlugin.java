@@ -0,0 +1,138 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import sparkle.cms.domain.CmsSetting;
+import sparkle.cms.plugin.mgmt.PluginStatus;
+import sparkle.cms.plugin.mgmt.PluginType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DummySearchPlugin
+ * In memory search plugin matching analyzed terms against document names, counting searches.
+ */
+public class DummySearchPlugin implements SearchPlugin<DummySparkleDocument> {
+    private final List<DummySparkleDocument> documents = new ArrayList<>();
+    private int searches;
+
+    /**
+     * Get number of searches served
+     *
+     * @return searches
+     */
+    public int getSearches() {
+        return searches;
+    }
+
+    @Override
+    public void addToIndex(String id, String siteId, String name, String uri, Long date, String summary, String content) {
+        deleteFromIndex(id);
+        documents.add(new DummySparkleDocument(id, siteId, name));
+    }
+
+    @Override
+    public long addAllToIndex(Stream<? extends SparkleDocument> stream) {
+        return 0;
+    }
+
+    @Override
+    public long reindexSite(String siteId, Stream<? extends SparkleDocument> stream, LongConsumer progress) {
+        return 0;
+    }
+
+    @Override
+    public void deleteFromIndex(String id) {
+        documents.removeIf(document -> document.getId().equals(id));
+    }
+
+    @Override
+    public List<DummySparkleDocument> search(String siteId, String searchTerm) {
+        searches++;
+        final List<String> words = QueryAnalyzer.analyze(searchTerm);
+        return documents.stream()
+                .filter(document -> document.getSiteId().equals(siteId))
+                .filter(document -> QueryAnalyzer.tokenize(document.getName()).stream().anyMatch(words::contains))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<DummySparkleDocument> search(String siteId, String searchTerm, Pageable pageable) {
+        return new PageImpl<>(search(siteId, searchTerm));
+    }
+
+    @Override
+    public Slice<DummySparkleDocument> searchSlice(String siteId, String searchTerm, Pageable pageable) {
+        return new SliceImpl<>(search(siteId, searchTerm));
+    }
+
+    @Override
+    public void update(String id, String siteId, String name, String uri, Long date, String summary, String content) {
+        addToIndex(id, siteId, name, uri, date, summary, content);
+    }
+
+    @Override
+    public String getId() {
+        return "dummy";
+    }
+
+    @Override
+    public String getName() {
+        return "Dummy Search Plugin";
+    }
+
+    @Override
+    public PluginType getType() {
+        return PluginType.SEARCH;
+    }
+
+    @Override
+    public PluginStatus getStatus() {
+        return PluginStatus.ACTIVE;
+    }
+
+    @Override
+    public String getVERSION() {
+        return "1.0";
+    }
+
+    @Override
+    public List<CmsSetting> getSettings() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public void setFilter(String filter) {
+    }
+
+    @Override
+    public void invalidateSettings() {
+    }
+
+    @Override
+    public void invalidateSetting(String key) {
+    }
+
+    @Override
+    public void doActivate() {
+    }
+
+    @Override
+    public void doDeactivate() {
+    }
+
+    @Override
+    public void doExecuteStartupTasks() {
+    }
+
+    @Override
+    public void doExecuteShutdownTasks() {
+    }
+}
@@ -0,0 +1,51 @@
+package sparkle.cms.plugin.mgmt.search;
+
+/**
+ * DummySparkleDocument
+ */
+public class DummySparkleDocument implements SparkleDocument {
+    private final String id;
+    private final String siteId;
+    private final String name;
+
+    public DummySparkleDocument(String id, String siteId, String name) {
+        this.id = id;
+        this.siteId = siteId;
+        this.name = name;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getSiteId() {
+        return siteId;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getUri() {
+        return null;
+    }
+
+    @Override
+    public Long getDate() {
+        return null;
+    }
+
+    @Override
+    public String getSummary() {
+        return null;
+    }
+
+    @Override
+    public String getContent() {
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * IndexingQueueTest
+ */
+public class IndexingQueueTest {
+
+    @Test
+    public void testMergeOperations() throws Exception {
+        final List<String> written = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+        IndexingQueue<DummySparkleDocument> queue = new IndexingQueue<>((documents, deletedIds) -> {
+            documents.forEach(document -> written.add(document.getId() + ":" + document.getName()));
+            deleted.addAll(deletedIds);
+        }, 100, 60000);
+
+        queue.add(new DummySparkleDocument("1", null, "first"));
+        queue.add(new DummySparkleDocument("2", null, "second"));
+        queue.add(new DummySparkleDocument("1", null, "updated"));
+        queue.delete("2");
+        queue.delete("3");
+        assertEquals(3, queue.getPending());
+
+        queue.close();
+        assertEquals(Collections.singletonList("1:updated"), written);
+        assertEquals(Arrays.asList("2", "3"), deleted);
+    }
+
+    @Test
+    public void testRequeueFailedBatch() throws Exception {
+        final List<String> written = new ArrayList<>();
+        final boolean[] fail = {true};
+        IndexingQueue<DummySparkleDocument> queue = new IndexingQueue<>((documents, deletedIds) -> {
+            if (fail[0]) {
+                throw new IllegalStateException("index down");
+            }
+            documents.forEach(document -> written.add(document.getName()));
+        }, 100, 60000);
+
+        queue.add(new DummySparkleDocument("1", null, "first"));
+        try {
+            queue.flush();
+        } catch (IllegalStateException e) {
+            assertEquals(1, queue.getPending());
+        }
+
+        fail[0] = false;
+        queue.close();
+        assertEquals(Collections.singletonList("first"), written);
+    }
+}
@@ -0,0 +1,42 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * QueryAnalyzerTest
+ */
+public class QueryAnalyzerTest {
+
+    @Test
+    public void testFold() throws Exception {
+        assertEquals("perche cosi", QueryAnalyzer.fold("Perch\u00e9 COS\u00cc"));
+        assertEquals("plain ascii", QueryAnalyzer.fold("Plain ASCII"));
+    }
+
+    @Test
+    public void testAnalyze() throws Exception {
+        assertEquals(Arrays.asList("dark", "lord", "arts"), QueryAnalyzer.analyze("  The Dark   lord, of the dark-arts "));
+        assertEquals(Collections.singletonList("the"), QueryAnalyzer.analyze("the"));
+        assertTrue(QueryAnalyzer.analyze(" ,; ").isEmpty());
+    }
+
+    @Test
+    public void testAnalyzeNonLatin() throws Exception {
+        assertEquals(Collections.singletonList("москва"), QueryAnalyzer.analyze("Москва"));
+        assertEquals(Collections.singletonList("ελλαδα"), QueryAnalyzer.analyze("Ελλάδα"));
+        assertEquals(Collections.singletonList("日本語"), QueryAnalyzer.analyze("日本語"));
+        assertEquals(Collections.singletonList("straße"), QueryAnalyzer.analyze("Straße"));
+        assertEquals(Arrays.asList("łodz", "2015"), QueryAnalyzer.analyze("Łódź, 2015"));
+    }
+
+    @Test
+    public void testTokenize() throws Exception {
+        assertEquals(Arrays.asList("the", "lord", "of", "rings"), Arrays.asList(QueryAnalyzer.tokenize("The L\u00f3rd of", null, "the rings").toArray()));
+    }
+}
@@ -0,0 +1,61 @@
+package sparkle.cms.plugin.mgmt.search;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MongoIndexEntry
+ * Compact search entry of a content, holding normalized tokens and the fields displayed in results.
+ */
+@Document(collection = MongoIndexEntry.COLLECTION)
+public class MongoIndexEntry {
+    public static final String COLLECTION = "sparkleSearchIndex";
+    public static final String FIELD_SITEID = "siteId";
+    public static final String FIELD_TOKENS = "tokens";
+
+    @Id
+    private String id;
+    private String siteId;
+    private String name;
+    private String uri;
+    private Long date;
+    private String summary;
+    private List<String> tokens;
+
+    public MongoIndexEntry() {
+    }
+
+    public MongoIndexEntry(String id, String siteId, String name, String uri, Long date, String summary, String content) {
+        this.id = id;
+        this.siteId = siteId;
+        this.name = name;
+        this.uri = uri;
+        this.date = date;
+        this.summary = summary;
+        this.tokens = new ArrayList<>(QueryAnalyzer.tokenize(name, summary, content));
+    }
+
+    /**
+     * Get search result of this entry, content is not stored in the index
+     *
+     * @return document
+     */
+    public MongoSparkleDocument toDocument() {
+        return new MongoSparkleDocument(id, siteId, name, uri, date, summary, null);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+}
@@ -4,9 +4,19 @@ import com.mongodb.Mongo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Component;
 import sparkle.cms.domain.CmsContent;
 import sparkle.cms.domain.CmsSetting;
@@ -15,9 +25,9 @@ import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 import sparkle.cms.plugin.mgmt.search.mongo.MongoTemplateFactory;
 
-import java.text.Normalizer;
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -26,10 +36,15 @@ import java.util.stream.Collectors;
  */
 @Component
 public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument> {
+    public static final String REGEX_MODE = "regex";
+    public static final String TEXT_MODE = "text";
+    public static final String INDEX_MODE = "index";
+    private static final String FIELD_ID = "_id";
 
     @Value("classpath:/META-INF/mongo-plugin.properties")
     private Resource resource;
     private MongoTemplate mongoTemplate;
+    private String searchMode;
     @Autowired
     private Mongo mongo;
 
@@ -52,6 +67,7 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
     protected void createSettings() throws PluginOperationException {
         settings.add(new CmsSetting(getCompoundKey("activate"), getSetting("activate", Boolean.class, false), SettingType.BOOL));
         settings.add(new CmsSetting(getCompoundKey("database.name"), getSetting("database.name", String.class, properties.getProperty("plugin.database.name")), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("search.mode"), getSetting("search.mode", String.class, properties.getProperty("plugin.search.mode")), SettingType.TEXT));
     }
 
     /**
@@ -66,15 +82,32 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
             throw new PluginOperationException("Cannot define repository URL");
         }
 
+        String mode = getSetting("search.mode", String.class, properties.getProperty("plugin.search.mode"));
+        if (!REGEX_MODE.equals(mode) && !TEXT_MODE.equals(mode) && !INDEX_MODE.equals(mode)) {
+            throw new PluginOperationException(String.format("Unknown search mode: %s", mode));
+        }
+
         if (!databaseName.equals("<change me>")) {
             MongoTemplateFactory factory = new MongoTemplateFactory(mongo, databaseName);
             mongoTemplate = factory.createMongoTemplate();
+            if (TEXT_MODE.equals(mode)) {
+                mongoTemplate.indexOps(CmsContent.class).ensureIndex(TextIndexDefinition.builder()
+                        .onField(MongoSparkleDocument.FIELD_TITLE, 3F)
+                        .onField(MongoSparkleDocument.FIELD_SUMMARY, 2F)
+                        .onField(MongoSparkleDocument.FIELD_CONTENT)
+                        .build());
+            } else if (INDEX_MODE.equals(mode)) {
+                mongoTemplate.indexOps(MongoIndexEntry.class).ensureIndex(new Index()
+                        .on(MongoIndexEntry.FIELD_SITEID, Sort.Direction.ASC)
+                        .on(MongoIndexEntry.FIELD_TOKENS, Sort.Direction.ASC));
+            }
+            searchMode = mode;
             status = PluginStatus.ACTIVE;
         }
     }
 
     /**
-     * Update a content in index
+     * Update a content in index, only index mode keeps a search collection
      *
      * @param id        document id
      * @param siteId    document siteId
@@ -86,7 +119,21 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
      */
     @Override
     public void addToIndex(String id, String siteId, String name, String uri, Long date, String summary, String content) {
-        //ignore
+        if (INDEX_MODE.equals(searchMode)) {
+            mongoTemplate.save(new MongoIndexEntry(id, siteId, name, uri, date, summary, content));
+        }
+    }
+
+    /**
+     * Delete all indexed documents of a site, only index mode keeps a search collection
+     *
+     * @param siteId site id
+     */
+    @Override
+    protected void deleteSiteFromIndex(String siteId) {
+        if (INDEX_MODE.equals(searchMode)) {
+            mongoTemplate.remove(new Query(Criteria.where(MongoIndexEntry.FIELD_SITEID).is(siteId)), MongoIndexEntry.class);
+        }
     }
 
     /**
@@ -96,7 +143,9 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
      */
     @Override
     public void deleteFromIndex(String id) {
-        //ignore
+        if (INDEX_MODE.equals(searchMode)) {
+            mongoTemplate.remove(new Query(Criteria.where(FIELD_ID).is(id)), MongoIndexEntry.class);
+        }
     }
 
     /**
@@ -108,12 +157,46 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
      */
     @Override
     public List<MongoSparkleDocument> search(String siteId, String searchTerm) {
-        String[] words = searchTerm.split(" ");
-        if (words.length == 0) return Collections.emptyList();
-        Criteria conditions = Criteria.where(MongoSparkleDocument.FIELD_SITEID).is(siteId).andOperator(createSearchConditions(words));
-        Query search = new Query(conditions);
-        final List<CmsContent> cmsContents = mongoTemplate.find(search, CmsContent.class);
-        return cmsContents.stream().map(MongoSparkleDocument::new).collect(Collectors.toList());
+        Query search = createSearchQuery(siteId, searchTerm);
+        if (search == null) return Collections.emptyList();
+        return find(search);
+    }
+
+    /**
+     * Search index for specified term, skip and limit are applied by Mongo
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return page of found documents with total count
+     */
+    @Override
+    public Page<MongoSparkleDocument> search(String siteId, String searchTerm, Pageable pageable) {
+        Query search = createSearchQuery(siteId, searchTerm);
+        if (search == null) return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        final long total = mongoTemplate.count(search, INDEX_MODE.equals(searchMode) ? MongoIndexEntry.class : CmsContent.class);
+        search.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        addSort(search, pageable);
+        return new PageImpl<>(find(search), pageable, total);
+    }
+
+    /**
+     * Search index for specified term, one extra document is fetched to detect a next page instead of counting
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return slice of found documents
+     */
+    @Override
+    public Slice<MongoSparkleDocument> searchSlice(String siteId, String searchTerm, Pageable pageable) {
+        Query search = createSearchQuery(siteId, searchTerm);
+        if (search == null) return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        search.skip(pageable.getOffset()).limit(pageable.getPageSize() + 1);
+        addSort(search, pageable);
+        final List<MongoSparkleDocument> documents = find(search);
+        final boolean hasNext = documents.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? documents.subList(0, pageable.getPageSize()) : documents, pageable, hasNext);
     }
 
     /**
@@ -129,14 +212,52 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
      */
     @Override
     public void update(String id, String siteId, String name, String uri, Long date, String summary, String content) {
-        //ignore
+        addToIndex(id, siteId, name, uri, date, summary, content);
+    }
+
+    private Query createSearchQuery(String siteId, String searchTerm) {
+        List<String> words = QueryAnalyzer.analyze(searchTerm);
+        if (words.isEmpty()) return null;
+        if (TEXT_MODE.equals(searchMode)) {
+            return TextQuery.queryText(TextCriteria.forDefaultLanguage().matchingAny(words.toArray(new String[words.size()])))
+                    .sortByScore()
+                    .addCriteria(Criteria.where(MongoSparkleDocument.FIELD_SITEID).is(siteId));
+        }
+        if (INDEX_MODE.equals(searchMode)) {
+            // tokens are alphanumeric, anchored prefixes stay literal and are resolved on the tokens index
+            final Object[] prefixes = words.stream().map(token -> Pattern.compile("^" + token)).toArray();
+            Query query = new Query(Criteria.where(MongoIndexEntry.FIELD_SITEID).is(siteId).and(MongoIndexEntry.FIELD_TOKENS).in(prefixes));
+            query.fields().exclude(MongoIndexEntry.FIELD_TOKENS);
+            return query;
+        }
+        Criteria conditions = Criteria.where(MongoSparkleDocument.FIELD_SITEID).is(siteId).andOperator(createSearchConditions(words));
+        return new Query(conditions);
     }
 
-    private Criteria createSearchConditions(String[] words) {
+    /**
+     * Applies requested sort followed by id, so that pages never overlap nor skip documents.
+     * Text queries keep relevance as the first sort key.
+     */
+    private void addSort(Query search, Pageable pageable) {
+        if (pageable.getSort() != null) {
+            search.with(pageable.getSort());
+        }
+        search.with(new Sort(Sort.Direction.DESC, FIELD_ID));
+    }
+
+    private List<MongoSparkleDocument> find(Query search) {
+        if (INDEX_MODE.equals(searchMode)) {
+            return mongoTemplate.find(search, MongoIndexEntry.class).stream().map(MongoIndexEntry::toDocument).collect(Collectors.toList());
+        }
+        final List<CmsContent> cmsContents = mongoTemplate.find(search, CmsContent.class);
+        return cmsContents.stream().map(MongoSparkleDocument::new).collect(Collectors.toList());
+    }
+
+    private Criteria createSearchConditions(List<String> words) {
         Criteria conditions = null;
 
         for (String word : words) {
-            word = ".*" + normalize(word) + ".*";
+            word = ".*" + word + ".*";
             if (conditions == null) {
                 conditions = Criteria.where(MongoSparkleDocument.FIELD_TITLE).regex(word, "i")
                         /*.orOperator(Criteria.where(MongoSparkleDocument.FIELD_SUMMARY).regex(word, "im"))
@@ -150,10 +271,4 @@ public class MongoSearchPlugin extends AbstractSearchPlugin<MongoSparkleDocument
 
         return conditions;
     }
-
-    private String normalize(String word) {
-        return Normalizer.normalize(word, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                .replaceAll("[^\\p{Alnum}|/|\\.]+", "_");
-    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ public class MongoSparkleDocument implements SparkleDocument {
     public static final String FIELD_CONTENT = "content";
     public static final String FIELD_SITEID = "siteId";
     private final String id;
+    private final String siteId;
     private final String name;
     private final String uri;
     private final Long date;
@@ -19,11 +20,12 @@ public class MongoSparkleDocument implements SparkleDocument {
     private final String content;
 
     public MongoSparkleDocument(CmsContent cmsContent) {
-        this(cmsContent.getId(), cmsContent.getTitle(), cmsContent.getUri(), cmsContent.getModificationDate().getTime(), cmsContent.getSummary(), cmsContent.getContent());
+        this(cmsContent.getId(), cmsContent.getSiteId(), cmsContent.getTitle(), cmsContent.getUri(), cmsContent.getModificationDate().getTime(), cmsContent.getSummary(), cmsContent.getContent());
     }
 
-    public MongoSparkleDocument(String id, String title, String uri, Long date, String summary, String content) {
+    public MongoSparkleDocument(String id, String siteId, String title, String uri, Long date, String summary, String content) {
         this.id = id;
+        this.siteId = siteId;
         this.name = title;
         this.uri = uri;
         this.date = date;
@@ -41,6 +43,16 @@ public class MongoSparkleDocument implements SparkleDocument {
         return id;
     }
 
+    /**
+     * Get Document site id
+     *
+     * @return site id
+     */
+    @Override
+    public String getSiteId() {
+        return siteId;
+    }
+
     /**
      * Get Document name
      *
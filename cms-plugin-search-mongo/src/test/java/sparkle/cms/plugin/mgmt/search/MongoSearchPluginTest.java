@@ -9,6 +9,9 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.config.AbstractMongoConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
@@ -23,10 +26,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * MongoSearchPluginTest
@@ -93,6 +98,7 @@ public class MongoSearchPluginTest extends AbstractMongoConfiguration {
         cmsSite = new CmsSite("evil.com", new Date(), "evil.com", WorkflowType.SELF_APPROVAL_WF, CommentApprovalMode.SELF_APPROVAL, cmsUser);
         cmsSiteRepository.save(cmsSite);
 
+        plugin.invalidateSettings();
         plugin.doActivate();
     }
 
@@ -125,4 +131,69 @@ public class MongoSearchPluginTest extends AbstractMongoConfiguration {
         documentList = plugin.search(cmsSite.getId(), "Te");
         assertEquals(3, documentList.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSearchPage() throws Exception {
+        List<CmsContent> contentList = new ArrayList<>();
+        contentList.add(new CmsContent(cmsSite.getId(), "Test01", "Test01", "/test01", new Date(), randomAlphabetic(20), randomAlphabetic(200)));
+        contentList.add(new CmsContent(cmsSite.getId(), "Test02", "Test02", "/test02", new Date(), randomAlphabetic(20), randomAlphabetic(200)));
+        contentList.add(new CmsContent(cmsSite.getId(), "Test03", "Test03", "/test03", new Date(), randomAlphabetic(20), randomAlphabetic(200)));
+
+        contentList.forEach(cmsContentRepository::save);
+
+        Page<MongoSparkleDocument> page = plugin.search(cmsSite.getId(), "Test", new PageRequest(0, 2));
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getTotalElements());
+
+        Slice<MongoSparkleDocument> slice = plugin.searchSlice(cmsSite.getId(), "Test", new PageRequest(0, 2));
+        assertEquals(2, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        slice = plugin.searchSlice(cmsSite.getId(), "Test", new PageRequest(1, 2));
+        assertEquals(1, slice.getContent().size());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    public void testTextSearch() throws Exception {
+        cmsSettingRepository.save(new CmsSetting("mongo.search.mode", MongoSearchPlugin.TEXT_MODE, SettingType.TEXT));
+        plugin.invalidateSettings();
+        plugin.doActivate();
+
+        List<CmsContent> contentList = new ArrayList<>();
+        contentList.add(new CmsContent(cmsSite.getId(), "Test01", "Dark lord", "/test01", new Date(), "master", "content"));
+        contentList.add(new CmsContent(cmsSite.getId(), "Test02", "Dark arts", "/test02", new Date(), "spells", "the lord of all"));
+        contentList.add(new CmsContent(cmsSite.getId(), "Test03", "Lord of lords", "/test03", new Date(), "title", "content"));
+        contentList.add(new CmsContent(cmsSite.getId(), "Test04", "Potions", "/test04", new Date(), "summary", "content"));
+
+        contentList.forEach(cmsContentRepository::save);
+
+        List<MongoSparkleDocument> documentList = plugin.search(cmsSite.getId(), "lord");
+        assertEquals(3, documentList.size());
+        assertEquals("Lord of lords", documentList.get(0).getName());
+        documentList = plugin.search(cmsSite.getId(), "potions arts");
+        assertEquals(2, documentList.size());
+    }
+
+    @Test
+    public void testIndexSearch() throws Exception {
+        cmsSettingRepository.save(new CmsSetting("mongo.search.mode", MongoSearchPlugin.INDEX_MODE, SettingType.TEXT));
+        plugin.invalidateSettings();
+        plugin.doActivate();
+
+        plugin.addToIndex("1", cmsSite.getId(), "Dark lord", "/test01", 1L, "master", "content");
+        plugin.addToIndex("2", cmsSite.getId(), "Dark arts", "/test02", 2L, "spells", "L\u00f3rd of all");
+        plugin.addToIndex("3", "other.com", "Lord of lords", "/test03", 3L, "title", "content");
+
+        List<MongoSparkleDocument> documentList = plugin.search(cmsSite.getId(), "lor");
+        assertEquals(2, documentList.size());
+        assertEquals(null, documentList.get(0).getContent());
+
+        plugin.update("1", cmsSite.getId(), "Potions", "/test01", 1L, "summary", "content");
+        assertEquals(1, plugin.search(cmsSite.getId(), "lord").size());
+        plugin.deleteFromIndex("2");
+        assertEquals(0, plugin.search(cmsSite.getId(), "lord").size());
+
+        plugin.reindexSite("other.com", Stream.empty(), null);
+        assertEquals(0, plugin.search("other.com", "lord").size());
+    }
+}
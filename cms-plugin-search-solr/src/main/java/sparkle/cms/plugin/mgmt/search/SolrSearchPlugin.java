@@ -1,19 +1,52 @@
 package sparkle.cms.plugin.mgmt.search;
 
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.data.solr.core.query.Criteria;
+import org.springframework.data.solr.core.query.HighlightQuery;
 import org.springframework.data.solr.core.query.SimpleQuery;
+import org.springframework.data.solr.core.query.result.HighlightEntry;
+import org.springframework.data.solr.core.query.result.HighlightPage;
 import org.springframework.stereotype.Component;
 import sparkle.cms.domain.CmsSetting;
 import sparkle.cms.domain.SettingType;
 import sparkle.cms.plugin.mgmt.PluginOperationException;
 import sparkle.cms.plugin.mgmt.PluginStatus;
 import sparkle.cms.plugin.mgmt.search.solr.SolrContentTemplateFactory;
+import sparkle.cms.plugin.mgmt.search.solr.SolrCursorPage;
+import sparkle.cms.plugin.mgmt.search.solr.SolrQueryFactory;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * SolrSearchPlugin
@@ -21,10 +54,16 @@ import java.util.List;
  */
 @Component
 public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument> {
+    public static final String WILDCARD_MODE = SolrQueryFactory.WILDCARD_MODE;
+    public static final String EDISMAX_MODE = SolrQueryFactory.EDISMAX_MODE;
+    public static final Sort RECENT_FIRST = new Sort(Sort.Direction.DESC, SolrSparkleDocument.FIELD_DATE, SolrSparkleDocument.FIELD_ID);
+    private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Value("classpath:/META-INF/solr-plugin.properties")
     private Resource resource;
     private SolrTemplate solrTemplate;
+    private volatile IndexingQueue<SolrSparkleDocument> indexingQueue;
+    private SolrQueryFactory queryFactory;
 
     /**
      * Get spring initialized resource
@@ -46,6 +85,12 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
     protected void createSettings() throws PluginOperationException {
         settings.add(new CmsSetting(getCompoundKey("activate"), getSetting("activate", Boolean.class, false), SettingType.BOOL));
         settings.add(new CmsSetting(getCompoundKey("server.url"), getSetting("server.url", String.class, properties.getProperty("plugin.server.url")), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("index.batch.size"), getSetting("index.batch.size", Integer.class, 100), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("index.flush.interval"), getSetting("index.flush.interval", Integer.class, 1000), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("index.commit.within"), getSetting("index.commit.within", Integer.class, 1000), SettingType.INTEGER));
+        settings.add(new CmsSetting(getCompoundKey("search.highlight"), getSetting("search.highlight", Boolean.class, false), SettingType.BOOL));
+        settings.add(new CmsSetting(getCompoundKey("query.mode"), getSetting("query.mode", String.class, properties.getProperty("plugin.query.mode")), SettingType.TEXT));
+        settings.add(new CmsSetting(getCompoundKey("query.fields"), getSetting("query.fields", String.class, properties.getProperty("plugin.query.fields")), SettingType.TEXT));
     }
 
     /**
@@ -60,16 +105,37 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
             throw new PluginOperationException("Cannot define repository URL");
         }
 
+        String queryMode = getSetting("query.mode", String.class, properties.getProperty("plugin.query.mode"));
+        if (!WILDCARD_MODE.equals(queryMode) && !EDISMAX_MODE.equals(queryMode)) {
+            throw new PluginOperationException(String.format("Unknown query mode: %s", queryMode));
+        }
+
         if (!solrServerUrl.equals("<change me>")) {
             if (!solrServerUrl.endsWith("/")) {
                 solrServerUrl = String.format("%s/", solrServerUrl);
                 SolrContentTemplateFactory factory = new SolrContentTemplateFactory(solrServerUrl);
                 solrTemplate = factory.createSolrTemplate();
             }
+            if (solrTemplate != null) {
+                createIndexingQueue();
+            }
+            queryFactory = new SolrQueryFactory(queryMode,
+                    getSetting("search.highlight", Boolean.class, Boolean.parseBoolean(properties.getProperty("plugin.search.highlight"))),
+                    getSetting("query.fields", String.class, properties.getProperty("plugin.query.fields")));
             status = PluginStatus.ACTIVE;
         }
     }
 
+    /**
+     * Writes pending index operations
+     *
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public void doExecuteShutdownTasks() throws PluginOperationException {
+        closeIndexingQueue();
+    }
+
     /**
      * Update a content in index
      *
@@ -89,8 +155,59 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
                 .date(date)
                 .summary(summary)
                 .content(content)
+                .generation(System.currentTimeMillis())
                 .build();
-        solrTemplate.saveBean(document);
+        enqueue(queue -> queue.add(document));
+    }
+
+    /**
+     * Add documents to index in chunks saved in parallel, committed once at the end
+     *
+     * @param documents documents, site id taken from each document
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long addAllToIndex(Stream<? extends SparkleDocument> documents) throws PluginOperationException {
+        final long indexed = bulkIndex(documents, null, System.currentTimeMillis(), null);
+        solrTemplate.commit();
+        return indexed;
+    }
+
+    /**
+     * Replace all indexed documents of a site. New documents are saved in chunks stamped with the reindex
+     * generation, then documents of the site written before the reindex started are deleted and both are
+     * committed. Documents replaced by id may become visible earlier; old documents stay searchable until
+     * the end and are kept if the reindex fails.
+     *
+     * @param siteId    site id
+     * @param documents site documents
+     * @param progress  receives number of documents indexed so far, may be called from indexing threads
+     * @return number of indexed documents
+     * @throws PluginOperationException if error
+     */
+    @Override
+    public long reindexSite(String siteId, Stream<? extends SparkleDocument> documents, LongConsumer progress) throws PluginOperationException {
+        final long generation = System.currentTimeMillis();
+        flushIndexingQueue();
+        final long indexed = bulkIndex(documents, siteId, generation, progress);
+        // documents indexed through the queue meanwhile are stamped later and survive
+        solrTemplate.delete(new SimpleQuery(String.format("%s:%s AND -%s:[%d TO *]", SolrSparkleDocument.FIELD_SITEID,
+                ClientUtils.escapeQueryChars(siteId), SolrSparkleDocument.FIELD_GENERATION, generation)));
+        solrTemplate.commit();
+        return indexed;
+    }
+
+    /**
+     * Delete all indexed documents of a site, pending queued operations are written first
+     *
+     * @param siteId site id
+     * @throws PluginOperationException if error
+     */
+    @Override
+    protected void deleteSiteFromIndex(String siteId) throws PluginOperationException {
+        flushIndexingQueue();
+        solrTemplate.delete(new SimpleQuery(new Criteria(SolrSparkleDocument.FIELD_SITEID).is(siteId)));
         solrTemplate.commit();
     }
 
@@ -101,8 +218,7 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
      */
     @Override
     public void deleteFromIndex(String id) {
-        solrTemplate.deleteById(id);
-        solrTemplate.commit();
+        enqueue(queue -> queue.delete(id));
     }
 
     /**
@@ -114,13 +230,118 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
      */
     @Override
     public List<SolrSparkleDocument> search(String siteId, String searchTerm) {
-        String[] words = searchTerm.split(" ");
+        if (queryFactory.isEdismax()) {
+            final SolrQuery solrQuery = queryFactory.createEdismaxQuery(siteId, searchTerm, null, null, null);
+            if (solrQuery == null) return Collections.emptyList();
+            return toDocuments(query(solrQuery));
+        }
+        SimpleQuery search = queryFactory.createSearchQuery(siteId, searchTerm, null, null, null);
+        if (search == null) return Collections.emptyList();
 
-        Criteria conditions = Criteria.where(SolrSparkleDocument.FIELD_SITEID).is(siteId).and(createSearchConditions(words));
-        SimpleQuery search = new SimpleQuery(conditions);
-        search.addSort(sortByIdDesc());
+        return queryForPage(search).getContent();
+    }
 
-        return solrTemplate.queryForPage(search, SolrSparkleDocument.class).getContent();
+    /**
+     * Search index for specified term, Solr returns only requested rows
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return page of found documents with total count
+     */
+    @Override
+    public Page<SolrSparkleDocument> search(String siteId, String searchTerm, Pageable pageable) {
+        return search(siteId, searchTerm, null, null, pageable);
+    }
+
+    /**
+     * Search index for specified term within a date range, sort by {@link #RECENT_FIRST} for newest documents first
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param fromDate   minimum document date in millis, null for no lower bound
+     * @param toDate     maximum document date in millis, null for no upper bound
+     * @param pageable   page offset, size and optional sort
+     * @return page of found documents with total count
+     */
+    public Page<SolrSparkleDocument> search(String siteId, String searchTerm, Long fromDate, Long toDate, Pageable pageable) {
+        if (queryFactory.isEdismax()) {
+            final SolrQuery solrQuery = queryFactory.createEdismaxQuery(siteId, searchTerm, fromDate, toDate, pageable);
+            if (solrQuery == null) return new PageImpl<>(Collections.emptyList(), pageable, 0);
+            final QueryResponse response = query(solrQuery);
+            return new PageImpl<>(toDocuments(response), pageable, response.getResults().getNumFound());
+        }
+        SimpleQuery search = queryFactory.createSearchQuery(siteId, searchTerm, fromDate, toDate, pageable);
+        if (search == null) return new PageImpl<>(Collections.emptyList(), pageable, 0);
+
+        return queryForPage(search);
+    }
+
+    /**
+     * Search index for specified term, match count comes with Solr response at no extra cost
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param pageable   page offset, size and optional sort
+     * @return slice of found documents
+     */
+    @Override
+    public Slice<SolrSparkleDocument> searchSlice(String siteId, String searchTerm, Pageable pageable) {
+        final Page<SolrSparkleDocument> page = search(siteId, searchTerm, pageable);
+        return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+    }
+
+    /**
+     * Search index for specified term using a Solr cursor, each page costs the same whatever its depth
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param cursorMark {@link SolrCursorPage#START} or next cursor mark of previous page
+     * @param size       page size
+     * @return page of found documents
+     */
+    public SolrCursorPage<SolrSparkleDocument> searchCursor(String siteId, String searchTerm, String cursorMark, int size) {
+        final SolrQuery solrQuery = queryFactory.createCursorQuery(siteId, searchTerm, cursorMark, size);
+        if (solrQuery == null) return new SolrCursorPage<>(Collections.emptyList(), cursorMark, cursorMark);
+
+        final QueryResponse response = query(solrQuery);
+        return new SolrCursorPage<>(toDocuments(response), cursorMark, response.getNextCursorMark());
+    }
+
+    /**
+     * Walk all documents matching specified term, pages are fetched lazily with a Solr cursor
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param size       documents fetched per request
+     * @return found documents
+     */
+    public Stream<SolrSparkleDocument> searchAll(String siteId, String searchTerm, int size) {
+        final Iterator<SolrSparkleDocument> iterator = new Iterator<SolrSparkleDocument>() {
+            private SolrCursorPage<SolrSparkleDocument> page;
+            private Iterator<SolrSparkleDocument> current;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (page != null && !page.hasNext()) {
+                        return false;
+                    }
+                    page = searchCursor(siteId, searchTerm, page == null ? SolrCursorPage.START : page.getNextCursorMark(), size);
+                    current = page.getContent().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public SolrSparkleDocument next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
     /**
@@ -136,35 +357,167 @@ public class SolrSearchPlugin extends AbstractSearchPlugin<SolrSparkleDocument>
      */
     @Override
     public void update(String id, String siteId, String name, String uri, Long date, String summary, String content) {
-        final SolrSparkleDocument document = SolrSparkleDocument.getBuilder(id, name)
-                .siteId(siteId)
-                .uri(uri)
-                .date(date)
-                .summary(summary)
-                .content(content)
+        addToIndex(id, siteId, name, uri, date, summary, content);
+    }
+
+    /**
+     * Saves documents in chunks on a bounded number of threads, without committing. On failure saved
+     * chunks are left in place, rolling back would also drop changes of other sites pending commit.
+     */
+    private long bulkIndex(Stream<? extends SparkleDocument> documents, String siteId, long generation, LongConsumer progress) throws PluginOperationException {
+        final int chunkSize = getSetting("index.batch.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.index.batch.size")));
+        final int parallelism = Runtime.getRuntime().availableProcessors();
+        final int maxChunks = parallelism * 2;
+        final Semaphore chunks = new Semaphore(maxChunks);
+        final AtomicLong indexed = new AtomicLong();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final Iterator<? extends SparkleDocument> iterator = documents.iterator();
+            while (iterator.hasNext() && failure.get() == null) {
+                final List<SolrSparkleDocument> chunk = new ArrayList<>(chunkSize);
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(toSolrDocument(iterator.next(), siteId, generation));
+                }
+                chunks.acquire();
+                executor.execute(() -> {
+                    try {
+                        solrTemplate.saveBeans(chunk);
+                        final long total = indexed.addAndGet(chunk.size());
+                        if (progress != null) {
+                            progress.accept(total);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        chunks.release();
+                    }
+                });
+            }
+            chunks.acquire(maxChunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IllegalStateException("Interrupted while indexing", e));
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+
+        if (failure.get() != null) {
+            throw new PluginOperationException(String.format("Bulk index failed after %d documents", indexed.get()), failure.get());
+        }
+        return indexed.get();
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Waiting for running index chunks to complete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SolrSparkleDocument toSolrDocument(SparkleDocument document, String siteId, long generation) {
+        return SolrSparkleDocument.getBuilder(document.getId(), document.getName())
+                .siteId(siteId == null ? document.getSiteId() : siteId)
+                .uri(document.getUri())
+                .date(document.getDate())
+                .summary(document.getSummary())
+                .content(document.getContent())
+                .generation(generation)
                 .build();
-        solrTemplate.saveBean(document);
-        solrTemplate.commit();
     }
 
+    private void flushIndexingQueue() throws PluginOperationException {
+        try {
+            indexingQueue.flush();
+        } catch (Exception e) {
+            throw new PluginOperationException("Cannot write pending index operations", e);
+        }
+    }
+
+    private void createIndexingQueue() {
+        final int batchSize = getSetting("index.batch.size", Integer.class, Integer.parseInt(properties.getProperty("plugin.index.batch.size")));
+        final int flushInterval = getSetting("index.flush.interval", Integer.class, Integer.parseInt(properties.getProperty("plugin.index.flush.interval")));
+        final int commitWithin = getSetting("index.commit.within", Integer.class, Integer.parseInt(properties.getProperty("plugin.index.commit.within")));
+        final SolrTemplate template = solrTemplate;
+        final IndexingQueue<SolrSparkleDocument> previous = indexingQueue;
+        // new queue is published first, writers never see a missing or closing queue during a reload
+        indexingQueue = new IndexingQueue<>((documents, deletedIds) -> template.execute(solrServer -> {
+            if (!documents.isEmpty()) {
+                solrServer.addBeans(documents, commitWithin);
+            }
+            if (!deletedIds.isEmpty()) {
+                solrServer.deleteById(deletedIds, commitWithin);
+            }
+            return null;
+        }), batchSize, flushInterval);
+        closeIndexingQueue(previous);
+    }
+
+    private void enqueue(Consumer<IndexingQueue<SolrSparkleDocument>> operation) {
+        final IndexingQueue<SolrSparkleDocument> queue = indexingQueue;
+        try {
+            operation.accept(queue);
+        } catch (IllegalStateException e) {
+            // queue closed by a reload after it was read, its successor takes the operation
+            final IndexingQueue<SolrSparkleDocument> current = indexingQueue;
+            if (current == queue) {
+                throw e;
+            }
+            operation.accept(current);
+        }
+    }
 
-    private Criteria createSearchConditions(String[] words) {
-        Criteria conditions = null;
+    @PreDestroy
+    private void closeIndexingQueue() {
+        closeIndexingQueue(indexingQueue);
+    }
 
-        for (String word : words) {
-            if (conditions == null) {
-                conditions = new Criteria(SolrSparkleDocument.FIELD_NAME).contains(word)
-                        .or(new Criteria(SolrSparkleDocument.FIELD_CONTENT).contains(word));
-            } else {
-                conditions = conditions.or(new Criteria(SolrSparkleDocument.FIELD_NAME).contains(word))
-                        .or(new Criteria(SolrSparkleDocument.FIELD_CONTENT).contains(word));
+    private void closeIndexingQueue(IndexingQueue<SolrSparkleDocument> queue) {
+        if (queue != null) {
+            try {
+                queue.close();
+            } catch (Exception e) {
+                logger.error("Cannot write pending index operations", e);
             }
         }
+    }
 
-        return conditions;
+    private QueryResponse query(SolrQuery solrQuery) {
+        return solrTemplate.execute(solrServer -> solrServer.query(solrQuery));
     }
 
-    private Sort sortByIdDesc() {
-        return new Sort(Sort.Direction.DESC, SolrSparkleDocument.FIELD_ID);
+    private List<SolrSparkleDocument> toDocuments(QueryResponse response) {
+        final List<SolrSparkleDocument> documents = response.getBeans(SolrSparkleDocument.class);
+        final Map<String, Map<String, List<String>>> highlighting = response.getHighlighting();
+        if (highlighting != null) {
+            for (SolrSparkleDocument document : documents) {
+                final Map<String, List<String>> snippets = highlighting.get(document.getId());
+                if (snippets != null && snippets.get(SolrSparkleDocument.FIELD_CONTENT) != null) {
+                    document.setSnippet(snippets.get(SolrSparkleDocument.FIELD_CONTENT).get(0));
+                }
+            }
+        }
+        return documents;
+    }
+
+    private Page<SolrSparkleDocument> queryForPage(SimpleQuery search) {
+        if (!(search instanceof HighlightQuery)) {
+            return solrTemplate.queryForPage(search, SolrSparkleDocument.class);
+        }
+        final HighlightPage<SolrSparkleDocument> page = solrTemplate.queryForHighlightPage((HighlightQuery) search, SolrSparkleDocument.class);
+        for (HighlightEntry<SolrSparkleDocument> entry : page.getHighlighted()) {
+            for (HighlightEntry.Highlight fieldHighlight : entry.getHighlights()) {
+                if (!fieldHighlight.getSnipplets().isEmpty()) {
+                    entry.getEntity().setSnippet(fieldHighlight.getSnipplets().get(0));
+                }
+            }
+        }
+        return page;
     }
 }
@@ -14,6 +14,10 @@ public class SolrSparkleDocument implements SparkleDocument {
     public static final String FIELD_NAME = "name";
     public static final String FIELD_CONTENT = "content";
     public static final String FIELD_SITEID = "siteId";
+    public static final String FIELD_URI = "uri_s";
+    public static final String FIELD_DATE = "date_l";
+    public static final String FIELD_SUMMARY = "summary_t";
+    public static final String FIELD_GENERATION = "generation_l";
 
     @Id
     @Field
@@ -24,13 +28,24 @@ public class SolrSparkleDocument implements SparkleDocument {
 
     @Field
     private String name;
+
+    @Field(FIELD_URI)
     private String uri;
-    private long date;
+
+    @Field(FIELD_DATE)
+    private Long date;
+
+    @Field(FIELD_SUMMARY)
     private String summary;
 
     @Field
     private String content;
 
+    @Field(FIELD_GENERATION)
+    private Long generation;
+
+    private String snippet;
+
     public SolrSparkleDocument() {
     }
 
@@ -43,6 +58,7 @@ public class SolrSparkleDocument implements SparkleDocument {
         return id;
     }
 
+    @Override
     public String getSiteId() {
         return siteId;
     }
@@ -72,6 +88,28 @@ public class SolrSparkleDocument implements SparkleDocument {
         return content;
     }
 
+    /**
+     * Get index generation, the time the document was written to the index
+     *
+     * @return generation
+     */
+    public Long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get highlighted content fragment, set by highlighting searches only
+     *
+     * @return snippet
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
     public static class Builder {
         private SolrSparkleDocument build;
 
@@ -91,7 +129,7 @@ public class SolrSparkleDocument implements SparkleDocument {
             return this;
         }
 
-        public Builder date(long date) {
+        public Builder date(Long date) {
             build.date = date;
             return this;
         }
@@ -106,6 +144,11 @@ public class SolrSparkleDocument implements SparkleDocument {
             return this;
         }
 
+        public Builder generation(Long generation) {
+            build.generation = generation;
+            return this;
+        }
+
         public SolrSparkleDocument build() {
             return build;
         }
@@ -0,0 +1,59 @@
+package sparkle.cms.plugin.mgmt.search.solr;
+
+import java.util.List;
+
+/**
+ * SolrCursorPage
+ * Page of a cursor based search, the next page is requested with {@link #getNextCursorMark()}.
+ *
+ * @param <T> document type
+ */
+public class SolrCursorPage<T> {
+    public static final String START = "*";
+
+    private final List<T> content;
+    private final String cursorMark;
+    private final String nextCursorMark;
+
+    public SolrCursorPage(List<T> content, String cursorMark, String nextCursorMark) {
+        this.content = content;
+        this.cursorMark = cursorMark;
+        this.nextCursorMark = nextCursorMark;
+    }
+
+    /**
+     * Get page documents
+     *
+     * @return documents
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Get cursor mark this page was requested with
+     *
+     * @return cursor mark
+     */
+    public String getCursorMark() {
+        return cursorMark;
+    }
+
+    /**
+     * Get cursor mark of next page
+     *
+     * @return next cursor mark
+     */
+    public String getNextCursorMark() {
+        return nextCursorMark;
+    }
+
+    /**
+     * Tells whether more documents may follow, Solr returns the same cursor mark once results are exhausted
+     *
+     * @return true if a next page should be requested
+     */
+    public boolean hasNext() {
+        return !content.isEmpty() && !cursorMark.equals(nextCursorMark);
+    }
+}
@@ -0,0 +1,194 @@
+package sparkle.cms.plugin.mgmt.search.solr;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.DisMaxParams;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.solr.core.DefaultQueryParser;
+import org.springframework.data.solr.core.query.Criteria;
+import org.springframework.data.solr.core.query.HighlightOptions;
+import org.springframework.data.solr.core.query.SimpleFilterQuery;
+import org.springframework.data.solr.core.query.SimpleHighlightQuery;
+import org.springframework.data.solr.core.query.SimpleQuery;
+import sparkle.cms.plugin.mgmt.search.QueryAnalyzer;
+import sparkle.cms.plugin.mgmt.search.SolrSparkleDocument;
+
+import java.util.List;
+
+/**
+ * SolrQueryFactory
+ * Builds search queries for the configured query mode. Wildcard queries are spring data queries matching
+ * analyzed words inside name and content, edismax queries are Solr queries scored over the query fields.
+ * Both restrict matches to a site with a filter query and return null when the term has no searchable word.
+ */
+public class SolrQueryFactory {
+    public static final String WILDCARD_MODE = "wildcard";
+    public static final String EDISMAX_MODE = "edismax";
+    private static final String[] DISPLAY_FIELDS = {SolrSparkleDocument.FIELD_ID, SolrSparkleDocument.FIELD_SITEID,
+            SolrSparkleDocument.FIELD_NAME, SolrSparkleDocument.FIELD_URI, SolrSparkleDocument.FIELD_DATE, SolrSparkleDocument.FIELD_SUMMARY};
+    private static final int SNIPPET_SIZE = 160;
+
+    private final boolean edismax;
+    private final boolean highlight;
+    private final String queryFields;
+
+    /**
+     * Creates a factory
+     *
+     * @param queryMode   {@link #WILDCARD_MODE} or {@link #EDISMAX_MODE}
+     * @param highlight   true to return content snippets
+     * @param queryFields edismax query fields with optional boosts, e.g. "name^3 content"
+     */
+    public SolrQueryFactory(String queryMode, boolean highlight, String queryFields) {
+        if (!WILDCARD_MODE.equals(queryMode) && !EDISMAX_MODE.equals(queryMode)) {
+            throw new IllegalArgumentException(String.format("Unknown query mode: %s", queryMode));
+        }
+        this.edismax = EDISMAX_MODE.equals(queryMode);
+        this.highlight = highlight;
+        this.queryFields = queryFields;
+    }
+
+    /**
+     * Tells whether queries are built with {@link #createEdismaxQuery}
+     *
+     * @return true in edismax mode
+     */
+    public boolean isEdismax() {
+        return edismax;
+    }
+
+    /**
+     * Creates a wildcard query sorted as requested, then by id so that pages never repeat nor skip documents
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param fromDate   minimum document date in millis, null for no lower bound
+     * @param toDate     maximum document date in millis, null for no upper bound
+     * @param pageable   page offset, size and optional sort, null for no paging
+     * @return query, null if term has no searchable word
+     */
+    public SimpleQuery createSearchQuery(String siteId, String searchTerm, Long fromDate, Long toDate, Pageable pageable) {
+        List<String> words = QueryAnalyzer.analyze(searchTerm);
+        if (words.isEmpty()) return null;
+
+        Criteria conditions = createSearchConditions(words);
+        SimpleQuery search;
+        if (highlight) {
+            SimpleHighlightQuery highlightQuery = new SimpleHighlightQuery(conditions);
+            highlightQuery.addProjectionOnFields(DISPLAY_FIELDS);
+            highlightQuery.setHighlightOptions(new HighlightOptions()
+                    .addField(SolrSparkleDocument.FIELD_CONTENT)
+                    .setFragsize(SNIPPET_SIZE)
+                    .setNrSnipplets(1));
+            search = highlightQuery;
+        } else {
+            search = new SimpleQuery(conditions);
+        }
+        search.addFilterQuery(new SimpleFilterQuery(Criteria.where(SolrSparkleDocument.FIELD_SITEID).is(siteId)));
+        if (fromDate != null || toDate != null) {
+            search.addFilterQuery(new SimpleFilterQuery(Criteria.where(SolrSparkleDocument.FIELD_DATE).between(fromDate, toDate)));
+        }
+        if (pageable != null) {
+            search.setPageRequest(pageable);
+        }
+        if (!isSortedById(pageable)) {
+            search.addSort(new Sort(Sort.Direction.DESC, SolrSparkleDocument.FIELD_ID));
+        }
+        return search;
+    }
+
+    /**
+     * Creates an edismax query sorted as requested or by score, then by id so that pages never repeat nor skip documents
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param fromDate   minimum document date in millis, null for no lower bound
+     * @param toDate     maximum document date in millis, null for no upper bound
+     * @param pageable   page offset, size and optional sort, null for no paging
+     * @return query, null if term has no searchable word
+     */
+    public SolrQuery createEdismaxQuery(String siteId, String searchTerm, Long fromDate, Long toDate, Pageable pageable) {
+        List<String> words = QueryAnalyzer.analyze(searchTerm);
+        if (words.isEmpty()) return null;
+
+        // analyzed words are plain alphanumeric tokens, no query syntax to escape
+        final SolrQuery solrQuery = new SolrQuery(String.join(" ", words));
+        solrQuery.set("defType", EDISMAX_MODE);
+        solrQuery.set(DisMaxParams.QF, queryFields);
+        solrQuery.set(DisMaxParams.MM, "1");
+        solrQuery.addFilterQuery(String.format("%s:%s", SolrSparkleDocument.FIELD_SITEID, ClientUtils.escapeQueryChars(siteId)));
+        if (fromDate != null || toDate != null) {
+            solrQuery.addFilterQuery(String.format("%s:[%s TO %s]", SolrSparkleDocument.FIELD_DATE,
+                    fromDate == null ? "*" : fromDate, toDate == null ? "*" : toDate));
+        }
+        if (highlight) {
+            solrQuery.setFields(DISPLAY_FIELDS);
+            solrQuery.setHighlight(true);
+            solrQuery.addHighlightField(SolrSparkleDocument.FIELD_CONTENT);
+            solrQuery.setHighlightFragsize(SNIPPET_SIZE);
+            solrQuery.setHighlightSnippets(1);
+        }
+        if (pageable != null) {
+            solrQuery.setStart(pageable.getOffset());
+            solrQuery.setRows(pageable.getPageSize());
+        }
+        if (pageable == null || pageable.getSort() == null) {
+            solrQuery.addSort("score", SolrQuery.ORDER.desc);
+        } else {
+            for (Sort.Order order : pageable.getSort()) {
+                solrQuery.addSort(order.getProperty(), order.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+            }
+        }
+        if (!isSortedById(pageable)) {
+            solrQuery.addSort(SolrSparkleDocument.FIELD_ID, SolrQuery.ORDER.desc);
+        }
+        return solrQuery;
+    }
+
+    /**
+     * Creates a query reading a page from a cursor, sort ends with the unique id as Solr cursors require
+     *
+     * @param siteId     site id
+     * @param searchTerm search term
+     * @param cursorMark {@link SolrCursorPage#START} or next cursor mark of previous page
+     * @param size       page size
+     * @return query, null if term has no searchable word
+     */
+    public SolrQuery createCursorQuery(String siteId, String searchTerm, String cursorMark, int size) {
+        final SolrQuery solrQuery;
+        if (edismax) {
+            solrQuery = createEdismaxQuery(siteId, searchTerm, null, null, null);
+        } else {
+            final SimpleQuery search = createSearchQuery(siteId, searchTerm, null, null, null);
+            solrQuery = search == null ? null : new DefaultQueryParser().constructSolrQuery(search);
+        }
+        if (solrQuery == null) return null;
+
+        solrQuery.setStart(0);
+        solrQuery.setRows(size);
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        return solrQuery;
+    }
+
+    private boolean isSortedById(Pageable pageable) {
+        return pageable != null && pageable.getSort() != null && pageable.getSort().getOrderFor(SolrSparkleDocument.FIELD_ID) != null;
+    }
+
+    private Criteria createSearchConditions(List<String> words) {
+        Criteria conditions = null;
+
+        for (String word : words) {
+            if (conditions == null) {
+                conditions = new Criteria(SolrSparkleDocument.FIELD_NAME).contains(word)
+                        .or(new Criteria(SolrSparkleDocument.FIELD_CONTENT).contains(word));
+            } else {
+                conditions = conditions.or(new Criteria(SolrSparkleDocument.FIELD_NAME).contains(word))
+                        .or(new Criteria(SolrSparkleDocument.FIELD_CONTENT).contains(word));
+            }
+        }
+
+        return conditions;
+    }
+}
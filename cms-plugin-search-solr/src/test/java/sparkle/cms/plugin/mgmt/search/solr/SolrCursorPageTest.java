@@ -0,0 +1,29 @@
+package sparkle.cms.plugin.mgmt.search.solr;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SolrCursorPageTest
+ */
+public class SolrCursorPageTest {
+
+    @Test
+    public void testHasNext() throws Exception {
+        assertTrue(new SolrCursorPage<>(Arrays.asList("a", "b"), SolrCursorPage.START, "AoE/b").hasNext());
+        assertTrue(new SolrCursorPage<>(Collections.singletonList("c"), "AoE/b", "AoE/c").hasNext());
+    }
+
+    @Test
+    public void testLastPage() throws Exception {
+        // Solr returns the requested cursor mark once results are exhausted
+        assertFalse(new SolrCursorPage<>(Collections.singletonList("c"), "AoE/c", "AoE/c").hasNext());
+        assertFalse(new SolrCursorPage<>(Collections.emptyList(), "AoE/c", "AoE/d").hasNext());
+        assertFalse(new SolrCursorPage<>(Collections.emptyList(), SolrCursorPage.START, SolrCursorPage.START).hasNext());
+    }
+}
@@ -0,0 +1,164 @@
+package sparkle.cms.plugin.mgmt.search.solr;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.DisMaxParams;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.solr.core.DefaultQueryParser;
+import org.springframework.data.solr.core.query.SimpleQuery;
+import sparkle.cms.plugin.mgmt.search.SolrSearchPlugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SolrQueryFactoryTest
+ */
+public class SolrQueryFactoryTest {
+    private static final String QUERY_FIELDS = "name^3 content";
+
+    @Test
+    public void testEdismaxQuery() throws Exception {
+        SolrQuery solrQuery = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, false, QUERY_FIELDS)
+                .createEdismaxQuery("my site", "The Dark lord", null, null, null);
+
+        assertEquals("dark lord", solrQuery.getQuery());
+        assertEquals("edismax", solrQuery.get("defType"));
+        assertEquals(QUERY_FIELDS, solrQuery.get(DisMaxParams.QF));
+        assertEquals("1", solrQuery.get(DisMaxParams.MM));
+        assertArrayEquals(new String[]{"siteId:my\\ site"}, solrQuery.getFilterQueries());
+        assertEquals(Arrays.asList(new SolrQuery.SortClause("score", SolrQuery.ORDER.desc),
+                new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), solrQuery.getSorts());
+        assertFalse(solrQuery.getHighlight());
+        assertNull(solrQuery.getStart());
+    }
+
+    @Test
+    public void testEdismaxQueryPageAndDateRange() throws Exception {
+        SolrQueryFactory factory = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, false, QUERY_FIELDS);
+
+        SolrQuery solrQuery = factory.createEdismaxQuery("sparkle", "lord", 1000L, 2000L,
+                new PageRequest(2, 10, new Sort(Sort.Direction.DESC, "date_l")));
+        assertArrayEquals(new String[]{"siteId:sparkle", "date_l:[1000 TO 2000]"}, solrQuery.getFilterQueries());
+        assertEquals(Integer.valueOf(20), solrQuery.getStart());
+        assertEquals(Integer.valueOf(10), solrQuery.getRows());
+        assertEquals(Arrays.asList(new SolrQuery.SortClause("date_l", SolrQuery.ORDER.desc),
+                new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), solrQuery.getSorts());
+
+        assertEquals("date_l:[* TO 2000]", factory.createEdismaxQuery("sparkle", "lord", null, 2000L, null).getFilterQueries()[1]);
+        assertEquals("date_l:[1000 TO *]", factory.createEdismaxQuery("sparkle", "lord", 1000L, null, null).getFilterQueries()[1]);
+    }
+
+    @Test
+    public void testEdismaxQueryHighlight() throws Exception {
+        SolrQuery solrQuery = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, true, QUERY_FIELDS)
+                .createEdismaxQuery("sparkle", "lord", null, null, null);
+
+        assertTrue(solrQuery.getHighlight());
+        assertArrayEquals(new String[]{"content"}, solrQuery.getHighlightFields());
+        assertEquals(160, solrQuery.getHighlightFragsize());
+        assertEquals(1, solrQuery.getHighlightSnippets());
+        assertTrue(Arrays.asList(solrQuery.getFields().split(",")).containsAll(Arrays.asList("id", "siteId", "name", "uri_s", "date_l", "summary_t")));
+        assertFalse(solrQuery.getFields().contains("content"));
+    }
+
+    @Test
+    public void testWildcardQuery() throws Exception {
+        SimpleQuery search = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, false, QUERY_FIELDS)
+                .createSearchQuery("sparkle", "Dark lord", null, null, null);
+        SolrQuery solrQuery = new DefaultQueryParser().constructSolrQuery(search);
+
+        final String q = solrQuery.getQuery();
+        assertTrue(q, q.contains("name:*dark*"));
+        assertTrue(q, q.contains("content:*dark*"));
+        assertTrue(q, q.contains("name:*lord*"));
+        assertTrue(q, q.contains("content:*lord*"));
+        assertFalse(q, q.contains("siteId"));
+        assertArrayEquals(new String[]{"siteId:sparkle"}, solrQuery.getFilterQueries());
+        assertEquals(Collections.singletonList(new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), solrQuery.getSorts());
+        assertFalse(solrQuery.getHighlight());
+    }
+
+    @Test
+    public void testWildcardQueryPageAndDateRange() throws Exception {
+        SimpleQuery search = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, false, QUERY_FIELDS)
+                .createSearchQuery("sparkle", "lord", 1000L, 2000L, new PageRequest(2, 10));
+        SolrQuery solrQuery = new DefaultQueryParser().constructSolrQuery(search);
+
+        assertEquals(Arrays.asList("siteId:sparkle", "date_l:[1000 TO 2000]"), Arrays.asList(solrQuery.getFilterQueries()));
+        assertEquals(Integer.valueOf(20), solrQuery.getStart());
+        assertEquals(Integer.valueOf(10), solrQuery.getRows());
+        assertEquals(Collections.singletonList(new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), solrQuery.getSorts());
+    }
+
+    @Test
+    public void testSortTieBreaker() throws Exception {
+        SimpleQuery search = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, false, QUERY_FIELDS)
+                .createSearchQuery("sparkle", "lord", null, null, new PageRequest(0, 10, Sort.Direction.ASC, "name"));
+        assertEquals(Arrays.asList(new SolrQuery.SortClause("name", SolrQuery.ORDER.asc),
+                new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), new DefaultQueryParser().constructSolrQuery(search).getSorts());
+
+        // id already ordered by caller is not repeated
+        SolrQuery solrQuery = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, false, QUERY_FIELDS)
+                .createEdismaxQuery("sparkle", "lord", null, null, new PageRequest(0, 10, SolrSearchPlugin.RECENT_FIRST));
+        assertEquals(Arrays.asList(new SolrQuery.SortClause("date_l", SolrQuery.ORDER.desc),
+                new SolrQuery.SortClause("id", SolrQuery.ORDER.desc)), solrQuery.getSorts());
+    }
+
+    @Test
+    public void testWildcardQueryHighlight() throws Exception {
+        SimpleQuery search = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, true, QUERY_FIELDS)
+                .createSearchQuery("sparkle", "lord", null, null, null);
+        SolrQuery solrQuery = new DefaultQueryParser().constructSolrQuery(search);
+
+        assertTrue(solrQuery.getHighlight());
+        assertArrayEquals(new String[]{"content"}, solrQuery.getHighlightFields());
+        assertTrue(Arrays.asList(solrQuery.getFields().split(",")).containsAll(Arrays.asList("id", "siteId", "name", "uri_s", "date_l", "summary_t")));
+    }
+
+    @Test
+    public void testCursorQuery() throws Exception {
+        SolrQuery edismax = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, false, QUERY_FIELDS)
+                .createCursorQuery("sparkle", "lord", SolrCursorPage.START, 50);
+        assertEquals(SolrCursorPage.START, edismax.get(CursorMarkParams.CURSOR_MARK_PARAM));
+        assertEquals(Integer.valueOf(0), edismax.getStart());
+        assertEquals(Integer.valueOf(50), edismax.getRows());
+        assertEquals("id", lastSortField(edismax.getSorts()));
+
+        SolrQuery wildcard = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, false, QUERY_FIELDS)
+                .createCursorQuery("sparkle", "lord", "AoE/abc", 50);
+        assertEquals("AoE/abc", wildcard.get(CursorMarkParams.CURSOR_MARK_PARAM));
+        assertEquals(Integer.valueOf(0), wildcard.getStart());
+        assertEquals(Integer.valueOf(50), wildcard.getRows());
+        assertEquals("id", lastSortField(wildcard.getSorts()));
+    }
+
+    @Test
+    public void testNoSearchableWord() throws Exception {
+        SolrQueryFactory edismax = new SolrQueryFactory(SolrQueryFactory.EDISMAX_MODE, false, QUERY_FIELDS);
+        assertNull(edismax.createEdismaxQuery("sparkle", " ,; ", null, null, null));
+        assertNull(edismax.createCursorQuery("sparkle", "", SolrCursorPage.START, 10));
+
+        SolrQueryFactory wildcard = new SolrQueryFactory(SolrQueryFactory.WILDCARD_MODE, false, QUERY_FIELDS);
+        assertNull(wildcard.createSearchQuery("sparkle", " ,; ", null, null, null));
+        assertNull(wildcard.createCursorQuery("sparkle", "", SolrCursorPage.START, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMode() throws Exception {
+        new SolrQueryFactory("fuzzy", false, QUERY_FIELDS);
+    }
+
+    private String lastSortField(List<SolrQuery.SortClause> sorts) {
+        return sorts.get(sorts.size() - 1).getItem();
+    }
+}
@@ -4,6 +4,7 @@ package sparkle.cms.plugin.mgmt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import sparkle.cms.data.CmsSettingRepository;
@@ -13,14 +14,29 @@ import sparkle.cms.domain.CmsUser;
 import sparkle.cms.domain.Role;
 import sparkle.cms.plugin.mgmt.asset.Asset;
 import sparkle.cms.plugin.mgmt.asset.AssetManagementPlugin;
+import sparkle.cms.plugin.mgmt.asset.AsyncAssetManagementPlugin;
 import sparkle.cms.plugin.mgmt.asset.Container;
+import sparkle.cms.plugin.mgmt.search.CachingSearchPlugin;
 import sparkle.cms.plugin.mgmt.search.SearchPlugin;
 import sparkle.cms.plugin.mgmt.search.SparkleDocument;
 import sparkle.cms.service.AbstractCmsSettingAwareService;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * PluginService
@@ -35,7 +51,24 @@ public class PluginService extends AbstractCmsSettingAwareService {
     private CmsUserRepository cmsUserRepository;
     @Autowired
     private CmsSettingRepository cmsSettingRepository;
+    @Value("${sparkle.plugin.activation.pool.size:4}")
+    private int activationPoolSize;
+    @Value("${sparkle.plugin.activation.timeout:60000}")
+    private long activationTimeout;
+    @Value("${sparkle.plugin.async.pool.size:16}")
+    private int asyncPoolSize;
+    @Value("${sparkle.plugin.async.timeout:30000}")
+    private long asyncTimeout;
+    @Value("${sparkle.search.cache.size:1000}")
+    private int searchCacheSize;
+    @Value("${sparkle.search.cache.ttl:60000}")
+    private long searchCacheTtl;
+    @Value("${sparkle.search.cache.settle:3000}")
+    private long searchCacheSettle;
+    private ExecutorService activationExecutor;
+    private volatile Map<String, PluginStatus> readiness = Collections.emptyMap();
     private AssetManagementPlugin<? extends Container, ? extends Asset> assetManagementPlugin;
+    private volatile AsyncAssetManagementPlugin<? extends Container, ? extends Asset> asyncAssetManagementPlugin;
     private SearchPlugin<? extends SparkleDocument> searchPlugin;
 
     private Map<String, Plugin> pluginMap;
@@ -44,16 +77,75 @@ public class PluginService extends AbstractCmsSettingAwareService {
         return assetManagementPlugin;
     }
 
+    /**
+     * Get non blocking facade of active asset management plugin
+     *
+     * @return async asset management plugin
+     */
+    public AsyncAssetManagementPlugin<? extends Container, ? extends Asset> getAsyncAssetManagementPlugin() {
+        return asyncAssetManagementPlugin;
+    }
+
+    /**
+     * Get active search plugin behind the result cache, index updates must go through it to invalidate cached results
+     *
+     * @return search plugin
+     */
     public SearchPlugin<? extends SparkleDocument> getSearchPlugin() {
         return searchPlugin;
     }
 
+    /**
+     * Get active search plugin without result cache, to reach backend specific searches such as Solr cursors
+     *
+     * @param type expected plugin type
+     * @param <P>  plugin type
+     * @return active search plugin, null if none is active or it is not of the expected type
+     */
+    public <P extends SearchPlugin<?>> P getSearchPlugin(Class<P> type) {
+        final SearchPlugin<?> plugin = searchPlugin instanceof CachingSearchPlugin ? ((CachingSearchPlugin<?>) searchPlugin).getDelegate() : searchPlugin;
+        return type.isInstance(plugin) ? type.cast(plugin) : null;
+    }
+
+    /**
+     * Get plugin statuses resulting from last reload, ERROR for failed or timed out activations
+     *
+     * @return plugin statuses by bean name
+     */
+    public Map<String, PluginStatus> getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Check whether every plugin completed last reload without errors
+     *
+     * @return true if no plugin is in ERROR status
+     */
+    public boolean isReady() {
+        return initialized && !readiness.containsValue(PluginStatus.ERROR);
+    }
+
     @PostConstruct
     private void initialize() {
         pluginMap = applicationContext.getBeansOfType(Plugin.class);
+        activationPoolSize = Math.max(1, activationPoolSize);
+        activationExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "plugin-activation");
+            thread.setDaemon(true);
+            return thread;
+        });
         doSettingAwareReload(false);
     }
 
+    @PreDestroy
+    private void destroy() {
+        activationExecutor.shutdownNow();
+        final AsyncAssetManagementPlugin<?, ?> asyncPlugin = asyncAssetManagementPlugin;
+        if (asyncPlugin != null) {
+            asyncPlugin.shutdown();
+        }
+    }
+
     /**
      * Actually executes reload activities
      *
@@ -62,30 +154,191 @@ public class PluginService extends AbstractCmsSettingAwareService {
     @SuppressWarnings("unchecked")
 	@Override
     protected void doActualReload(boolean force) {
+        Map<String, Callable<PluginStatus>> activations = new LinkedHashMap<>();
         for (Map.Entry<String, Plugin> entry : pluginMap.entrySet()) {
-            logger.debug("Processing bean {}", entry.getKey());
-            Plugin plugin = entry.getValue();
-            try {
-                plugin.doActivate();
-                if (plugin.getStatus().equals(PluginStatus.ACTIVE)) {
-                    if (force) {
-                        plugin.doExecuteStartupTasks();
+            activations.put(entry.getKey(), () -> activate(entry.getKey(), entry.getValue(), force));
+        }
+        Map<String, PluginStatus> statuses;
+        try {
+            statuses = runAll(activations, activationTimeout);
+            if (force) {
+                // startup tasks may sync a whole catalog, they are not bound to activation timeout
+                Map<String, Callable<PluginStatus>> tasks = new LinkedHashMap<>();
+                for (Map.Entry<String, PluginStatus> entry : statuses.entrySet()) {
+                    if (!entry.getValue().equals(PluginStatus.ERROR)) {
+                        Plugin plugin = pluginMap.get(entry.getKey());
+                        tasks.put(entry.getKey(), () -> executeTasks(plugin));
                     }
-                    if (AssetManagementPlugin.class.isAssignableFrom(plugin.getClass())) {
-                        assetManagementPlugin = (AssetManagementPlugin<? extends Container, ? extends Asset>) plugin;
-                    } else if (SearchPlugin.class.isAssignableFrom(plugin.getClass())) {
-                        searchPlugin = (SearchPlugin<? extends SparkleDocument>) plugin;
+                }
+                statuses.putAll(runAll(tasks, 0));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Plugin activation interrupted");
+            return;
+        }
+
+        SearchPlugin<? extends SparkleDocument> activeSearchPlugin = null;
+        for (Map.Entry<String, PluginStatus> entry : statuses.entrySet()) {
+            Plugin plugin = pluginMap.get(entry.getKey());
+            if (entry.getValue().equals(PluginStatus.ACTIVE)) {
+                if (AssetManagementPlugin.class.isAssignableFrom(plugin.getClass())) {
+                    assetManagementPlugin = (AssetManagementPlugin<? extends Container, ? extends Asset>) plugin;
+                } else if (SearchPlugin.class.isAssignableFrom(plugin.getClass())) {
+                    activeSearchPlugin = (SearchPlugin<? extends SparkleDocument>) plugin;
+                }
+            }
+        }
+        readiness = Collections.unmodifiableMap(statuses);
+        updateAsyncAssetManagementPlugin();
+        if (activeSearchPlugin != null) {
+            updateSearchPlugin(activeSearchPlugin);
+        }
+    }
+
+    /**
+     * Runs plugin tasks with at most activation pool size running at once. Each task gets its own
+     * timeout from the moment it is started; a timed out task is interrupted and its thread abandoned,
+     * so a plugin ignoring interruption never holds a slot needed by the following ones.
+     *
+     * @param tasks   tasks by bean name
+     * @param timeout timeout of each task in milliseconds, 0 for none
+     * @return resulting statuses by bean name, in tasks order, ERROR for failed or timed out tasks
+     * @throws InterruptedException if interrupted while waiting, running tasks are cancelled
+     */
+    private Map<String, PluginStatus> runAll(Map<String, Callable<PluginStatus>> tasks, long timeout) throws InterruptedException {
+        final Map<String, PluginStatus> statuses = new LinkedHashMap<>();
+        tasks.keySet().forEach(name -> statuses.put(name, PluginStatus.ERROR));
+        final CompletionService<PluginStatus> completion = new ExecutorCompletionService<>(activationExecutor);
+        final Iterator<Map.Entry<String, Callable<PluginStatus>>> pending = tasks.entrySet().iterator();
+        final Map<Future<PluginStatus>, String> running = new HashMap<>();
+        final Map<Future<PluginStatus>, Long> deadlines = new HashMap<>();
+        try {
+            while (!running.isEmpty() || pending.hasNext()) {
+                while (running.size() < activationPoolSize && pending.hasNext()) {
+                    final Map.Entry<String, Callable<PluginStatus>> task = pending.next();
+                    final Future<PluginStatus> future = completion.submit(task.getValue());
+                    running.put(future, task.getKey());
+                    deadlines.put(future, System.currentTimeMillis() + timeout);
+                }
+
+                final Future<PluginStatus> done;
+                if (timeout > 0) {
+                    final long wait = Collections.min(deadlines.values()) - System.currentTimeMillis();
+                    done = completion.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+                } else {
+                    done = completion.take();
+                }
+                if (done != null) {
+                    final String name = running.remove(done);
+                    deadlines.remove(done);
+                    if (name != null) {
+                        statuses.put(name, getResult(name, done));
                     }
-                } else if (plugin.getStatus().equals(PluginStatus.INSTALLED)) {
-                    if (force) {
-                        plugin.doExecuteShutdownTasks();
-                        plugin.doDeactivate();
+                } else {
+                    final long now = System.currentTimeMillis();
+                    for (Iterator<Map.Entry<Future<PluginStatus>, Long>> it = deadlines.entrySet().iterator(); it.hasNext(); ) {
+                        final Map.Entry<Future<PluginStatus>, Long> deadline = it.next();
+                        if (deadline.getValue() <= now) {
+                            it.remove();
+                            deadline.getKey().cancel(true);
+                            logger.error("Unable to activate {}: timed out after {} ms", running.remove(deadline.getKey()), timeout);
+                        }
                     }
                 }
-            } catch (PluginOperationException e) {
-                logger.error("Unable to activate {}: cause {}", plugin.getName(), e.getMessage());
             }
+        } finally {
+            running.keySet().forEach(future -> future.cancel(true));
+        }
+        return statuses;
+    }
+
+    private PluginStatus getResult(String name, Future<PluginStatus> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.error("Unable to activate {}: cause {}", name, e.getCause().getMessage());
+            return PluginStatus.ERROR;
+        }
+    }
+
+    /**
+     * Exposes active search plugin behind a result cache, unless cache size is 0
+     *
+     * @param plugin active search plugin
+     */
+    private <T extends SparkleDocument> void updateSearchPlugin(SearchPlugin<T> plugin) {
+        if (searchCacheSize <= 0) {
+            searchPlugin = plugin;
+        } else if (!(searchPlugin instanceof CachingSearchPlugin) || ((CachingSearchPlugin<?>) searchPlugin).getDelegate() != plugin) {
+            searchPlugin = new CachingSearchPlugin<>(plugin, searchCacheSize, searchCacheTtl, searchCacheSettle);
+        }
+    }
+
+    /**
+     * Wraps active asset management plugin in a non blocking facade with its own bounded executor
+     */
+    private <C extends Container, A extends Asset> void updateAsyncAssetManagementPlugin() {
+        if (assetManagementPlugin == null
+                || (asyncAssetManagementPlugin != null && asyncAssetManagementPlugin.getPlugin() == assetManagementPlugin)) {
+            return;
+        }
+        if (asyncAssetManagementPlugin != null) {
+            asyncAssetManagementPlugin.shutdown();
+        }
+        @SuppressWarnings("unchecked")
+        final AssetManagementPlugin<C, A> plugin = (AssetManagementPlugin<C, A>) assetManagementPlugin;
+        final ExecutorService executor = Executors.newFixedThreadPool(asyncPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "plugin-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+        asyncAssetManagementPlugin = new AsyncAssetManagementPlugin<>(plugin, executor, asyncTimeout);
+    }
+
+    /**
+     * Activates a single plugin, runs on activation executor
+     *
+     * @param name   bean name
+     * @param plugin plugin
+     * @param force  true drops cached settings, otherwise changed values are read once their cache TTL expires
+     * @return resulting plugin status
+     */
+    private PluginStatus activate(String name, Plugin plugin, boolean force) {
+        logger.debug("Processing bean {}", name);
+        try {
+            if (force) {
+                plugin.invalidateSettings();
+            }
+            plugin.doActivate();
+        } catch (PluginOperationException e) {
+            logger.error("Unable to activate {}: cause {}", plugin.getName(), e.getMessage());
+            return PluginStatus.ERROR;
         }
+
+        return plugin.getStatus();
+    }
+
+    /**
+     * Runs startup tasks of an active plugin or shutdown tasks of an installed one, runs on activation executor
+     *
+     * @param plugin activated plugin
+     * @return resulting plugin status
+     */
+    private PluginStatus executeTasks(Plugin plugin) {
+        try {
+            if (plugin.getStatus().equals(PluginStatus.ACTIVE)) {
+                plugin.doExecuteStartupTasks();
+            } else if (plugin.getStatus().equals(PluginStatus.INSTALLED)) {
+                plugin.doExecuteShutdownTasks();
+                plugin.doDeactivate();
+            }
+        } catch (PluginOperationException e) {
+            logger.error("Unable to activate {}: cause {}", plugin.getName(), e.getMessage());
+            return PluginStatus.ERROR;
+        }
+
+        return plugin.getStatus();
     }
 
     /**
@@ -93,10 +346,10 @@ public class PluginService extends AbstractCmsSettingAwareService {
      */
     @Override
     protected void setDefaultSettings() {
+        final List<CmsUser> cmsUsers = cmsUserRepository.findAll();
         for (Map.Entry<String, Plugin> entry : pluginMap.entrySet()) {
             logger.debug("Handling settings for bean {}", entry.getKey());
             Plugin plugin = entry.getValue();
-            final List<CmsUser> cmsUsers = cmsUserRepository.findAll();
             for (CmsUser cmsUser : cmsUsers) {
                 if (cmsUser.getRoles().stream().anyMatch(r -> r.getRole().equals(Role.ROLE_MANAGER))) {
                     plugin.setFilter(cmsUser.getId());
@@ -104,6 +357,7 @@ public class PluginService extends AbstractCmsSettingAwareService {
                         cmsSetting.setUserId(cmsUser.getId());
                         if (cmsSettingRepository.findByKeyAndUserId(cmsSetting.getKey(), cmsSetting.getUserId()).isEmpty()) {
                             cmsSettingRepository.save(cmsSetting);
+                            plugin.invalidateSetting(cmsSetting.getKey());
                         }
                     }
                 }
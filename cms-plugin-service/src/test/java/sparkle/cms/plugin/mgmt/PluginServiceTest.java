@@ -29,6 +29,7 @@ import java.util.Date;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * PluginServiceTest
@@ -90,7 +91,7 @@ public class PluginServiceTest extends AbstractMongoConfiguration {
         assertEquals(0, all.size());
         pluginService.doSettingAwareReload(true);
         all = cmsSettingRepository.findAll();
-        assertEquals(6, all.size());
+        assertEquals(13, all.size());
         all.stream().filter(s -> s.getKey().equals("filesystem.activate")).forEach(s -> {
             s.setValue(true);
             cmsSettingRepository.save(s);
@@ -101,6 +102,7 @@ public class PluginServiceTest extends AbstractMongoConfiguration {
         });
         pluginService.doSettingAwareReload(true);
         assertEquals(FileSystemAssetManagementPlugin.class, pluginService.getAssetManagementPlugin().getClass());
+        assertEquals(PluginStatus.ACTIVE, pluginService.getReadiness().get("fileSystemAssetManagementPlugin"));
     }
 
     @Test
@@ -109,8 +111,8 @@ public class PluginServiceTest extends AbstractMongoConfiguration {
         assertEquals(0, all.size());
         pluginService.doSettingAwareReload(true);
         all = cmsSettingRepository.findAll();
-        assertEquals(6, all.size());
-
+        assertEquals(13, all.size());
+        assertFalse(pluginService.getReadiness().isEmpty());
     }
 
     private CmsRole createCmsRole(String roleName) {